@@ -0,0 +1,240 @@
+package fr.opal.benchmark;
+
+import fr.opal.dao.ChannelDAO;
+import fr.opal.dao.EntryDAO;
+import fr.opal.dao.FriendsDAO;
+import fr.opal.dao.UserDAO;
+import fr.opal.db.EmbeddedDatabaseManager;
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
+import fr.opal.factory.AbstractDAOFactory;
+import fr.opal.factory.AbstractDAOFactory.FactoryType;
+import fr.opal.type.EPermission;
+import fr.opal.type.Entry;
+import fr.opal.type.Message;
+import fr.opal.type.User;
+import fr.opal.type.UserPermission;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * DAO round trips, including message list building, against a backend that needs no server.
+ * Every fork seeds a fresh database with the same fixed dataset: the embedded backend
+ * gets a new file in a temporary directory.
+ * Message lists run over several channel and page sizes, and report the statements they ran
+ * next to their time: statements / calls must stay at one whatever the sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-Dopal.db.detector=false"})
+@State(Scope.Benchmark)
+public class DaoRoundTripBenchmark {
+
+    private static final int USERS = 200;
+    private static final int FRIENDS = 50;
+    private static final int MESSAGE_SENDERS = 10;
+    private static final int MESSAGE_SEED_BATCH = 1000;
+    private static final int CHAIN_DEPTH = 20;
+    private static final int CHILDREN = 50;
+
+    /**
+     * Each value runs in its own fork, as the DAO factory is chosen once per JVM
+     */
+    @Param({"MEMORY", "EMBEDDED"})
+    public FactoryType backend;
+
+    private UserDAO userDAO;
+    private FriendsDAO friendsDAO;
+    private ChannelDAO channelDAO;
+    private EntryDAO entryDAO;
+
+    private List<User> users;
+    private int entryId;
+
+    /**
+     * A channel of the given size, seeded in batches once the database is
+     */
+    @State(Scope.Benchmark)
+    public static class MessageChannel {
+        @Param({"100", "2000", "20000"})
+        public int messages;
+
+        int channelId;
+        Message middle;
+
+        @Setup(Level.Trial)
+        public void setUp(DaoRoundTripBenchmark database) {
+            ChannelDAO channelDAO = database.channelDAO;
+            Random random = new Random(42);
+            channelId = channelDAO.createChannel();
+            List<Message> batch = new ArrayList<>(MESSAGE_SEED_BATCH);
+            for (int i = 0; i < messages; i++) {
+                User sender = database.users.get(random.nextInt(MESSAGE_SENDERS));
+                Message message = new Message(channelId, sender, "message " + i);
+                batch.add(message);
+                if (batch.size() == MESSAGE_SEED_BATCH || i == messages - 1) {
+                    channelDAO.saveMessages(batch);
+                    batch = new ArrayList<>(MESSAGE_SEED_BATCH);
+                }
+            }
+            // The paging cursor is the stored (created_at, id) position, read back from the database
+            try (Stream<Message> stored = channelDAO.streamMessagesForChannel(channelId)) {
+                middle = stored.skip(messages / 2).findFirst().orElseThrow();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"20", "50", "200"})
+        public int size;
+    }
+
+    /**
+     * Statements run by the measured calls of an iteration, reported as secondary results.
+     * The in-memory backend runs none.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long statements;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            calls = 0;
+        }
+
+        /**
+         * Adds the statements of a finished call, failing the run if a message list needed more than one
+         */
+        void record(QueryOperation operation) {
+            int count = operation.getStatementCount();
+            if (count > 1) {
+                throw new IllegalStateException(operation.getName() + " ran " + count + " statements");
+            }
+            statements += count;
+            calls++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, Entry.CircularDependencyException {
+        if (backend == FactoryType.EMBEDDED) {
+            System.setProperty(EmbeddedDatabaseManager.PATH_PROPERTY,
+                    Files.createTempDirectory("opal-bench").resolve("opal").toString());
+        }
+        AbstractDAOFactory.setFactoryType(backend);
+        AbstractDAOFactory factory = AbstractDAOFactory.getFactory();
+        userDAO = factory.createUserDAO();
+        friendsDAO = factory.createFriendsDAO();
+        channelDAO = factory.createChannelDAO();
+        entryDAO = factory.createEntryDAO();
+
+        users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(userDAO.createUser("bench_user_" + i, "password"));
+        }
+
+        User viewer = users.get(0);
+        for (int i = 1; i <= FRIENDS; i++) {
+            friendsDAO.addFriend(users.get(i).getId(), viewer.getId());
+            friendsDAO.acceptFriendRequest(users.get(i).getId(), viewer.getId());
+        }
+
+        // A chain of entries, the deepest one with many children, readable by some users from the root
+        Entry parent = null;
+        for (int depth = 0; depth < CHAIN_DEPTH; depth++) {
+            Entry entry = new Entry("level " + depth, "content " + depth, viewer);
+            if (parent == null) {
+                for (int i = 1; i <= 10; i++) {
+                    entry.getPermissionManager().addUserPermission(new UserPermission(users.get(i), EPermission.READER));
+                }
+            } else {
+                entry.setParentEntry(parent);
+            }
+            entryDAO.createEntry(entry);
+            parent = entry;
+        }
+        for (int i = 0; i < CHILDREN; i++) {
+            Entry child = new Entry("child " + i, "content", viewer);
+            child.setParentEntry(parent);
+            entryDAO.createEntry(child);
+        }
+        entryId = parent.getId();
+    }
+
+    @Benchmark
+    public User getUserByName() {
+        return userDAO.getUserById("bench_user_" + (USERS / 2));
+    }
+
+    @Benchmark
+    public List<User> getFriendList() {
+        return friendsDAO.getFriendList(users.get(0).getId());
+    }
+
+    @Benchmark
+    public boolean isFriend() {
+        return friendsDAO.isFriend(users.get(0).getId(), users.get(FRIENDS).getId());
+    }
+
+    @Benchmark
+    public List<Message> recentMessages(MessageChannel channel, Page page, Statements statements) {
+        try (QueryOperation operation = QueryMetrics.operation("DaoRoundTripBenchmark.recentMessages")) {
+            List<Message> messages = channelDAO.getRecentMessages(channel.channelId, page.size);
+            statements.record(operation);
+            return messages;
+        }
+    }
+
+    @Benchmark
+    public List<Message> messagesBefore(MessageChannel channel, Page page, Statements statements) {
+        try (QueryOperation operation = QueryMetrics.operation("DaoRoundTripBenchmark.messagesBefore")) {
+            List<Message> messages = channelDAO.getMessagesBefore(channel.channelId, channel.middle.getCreatedAt(), channel.middle.getId(), page.size);
+            statements.record(operation);
+            return messages;
+        }
+    }
+
+    @Benchmark
+    public List<Message> allMessages(MessageChannel channel, Statements statements) {
+        try (QueryOperation operation = QueryMetrics.operation("DaoRoundTripBenchmark.allMessages")) {
+            List<Message> messages = channelDAO.getMessagesForChannel(channel.channelId);
+            statements.record(operation);
+            return messages;
+        }
+    }
+
+    @Benchmark
+    public Entry loadEntry() {
+        return entryDAO.getEntryById(entryId);
+    }
+
+    @Benchmark
+    public List<Entry> rootEntries() {
+        return entryDAO.getRootEntries();
+    }
+}
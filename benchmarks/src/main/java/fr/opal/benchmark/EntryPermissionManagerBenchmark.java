@@ -0,0 +1,97 @@
+package fr.opal.benchmark;
+
+import fr.opal.type.EPermission;
+import fr.opal.type.EntryPermissionManager;
+import fr.opal.type.User;
+import fr.opal.type.UserPermission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user permission lookups on one entry. Probed users cycle through a fixed,
+ * seeded sequence so every run hits the same slots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class EntryPermissionManagerBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final EPermission[] LEVELS = EPermission.values();
+
+    /**
+     * Users with a permission on the entry
+     */
+    @Param({"4", "64", "1024"})
+    public int size;
+
+    private EntryPermissionManager manager;
+    private User[] present;
+    private User[] absent;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        manager = new EntryPermissionManager();
+        User[] users = new User[size];
+        for (int i = 0; i < size; i++) {
+            // Spread ids like an auto-increment column shared with other entries
+            users[i] = new User(1 + i * 7 + random.nextInt(7), "user" + i, "");
+            manager.addUserPermission(new UserPermission(users[i], LEVELS[random.nextInt(LEVELS.length)]));
+        }
+        manager.markClean();
+
+        present = new User[PROBES];
+        absent = new User[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            present[i] = users[random.nextInt(size)];
+            absent[i] = new User(-1 - random.nextInt(1_000_000), "absent" + i, "");
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public EPermission getPermissionHit() {
+        return manager.getPermission(present[next()].getId());
+    }
+
+    @Benchmark
+    public EPermission getPermissionMiss() {
+        return manager.getPermission(absent[next()].getId());
+    }
+
+    @Benchmark
+    public UserPermission getUserPermission() {
+        return manager.getUserPermission(present[next()]);
+    }
+
+    @Benchmark
+    public boolean canView() {
+        return manager.canView(present[next()]);
+    }
+
+    @Benchmark
+    public boolean hasExplicitPermissionMiss() {
+        return manager.hasExplicitPermission(absent[next()]);
+    }
+}
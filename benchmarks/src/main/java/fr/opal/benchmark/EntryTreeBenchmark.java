@@ -0,0 +1,105 @@
+package fr.opal.benchmark;
+
+import fr.opal.type.EPermission;
+import fr.opal.type.Entry;
+import fr.opal.type.User;
+import fr.opal.type.UserPermission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory entry tree walks: permission cascade up a deep chain and descendant
+ * collection over a wide tree. Trees are built once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class EntryTreeBenchmark {
+
+    private static final User OWNER = new User(1, "owner", "");
+    private static final User GRANTED = new User(2, "granted", "");
+    private static final User STRANGER = new User(3, "stranger", "");
+
+    /**
+     * A leaf under a chain of parents, only the root defining a permission for GRANTED,
+     * so the cascade walks the whole chain
+     */
+    @State(Scope.Benchmark)
+    public static class DeepTree {
+        @Param({"10", "100", "1000"})
+        public int depth;
+
+        Entry leaf;
+
+        @Setup
+        public void setUp() throws Entry.CircularDependencyException {
+            Entry root = new Entry(1, "root", "", OWNER);
+            root.getPermissionManager().addUserPermission(new UserPermission(GRANTED, EPermission.READER));
+            Entry current = root;
+            for (int i = 0; i < depth; i++) {
+                Entry child = new Entry(i + 2, "level " + i, "", OWNER);
+                child.setParentEntry(current);
+                current = child;
+            }
+            leaf = current;
+        }
+    }
+
+    /**
+     * A root with width children, each with 10 leaf children
+     */
+    @State(Scope.Benchmark)
+    public static class WideTree {
+        @Param({"100", "1000", "10000"})
+        public int width;
+
+        Entry root;
+
+        @Setup
+        public void setUp() throws Entry.CircularDependencyException {
+            root = new Entry(1, "wide", "", OWNER);
+            int id = 2;
+            for (int i = 0; i < width; i++) {
+                Entry child = new Entry(id++, "child " + i, "", OWNER);
+                for (int j = 0; j < 10; j++) {
+                    new Entry(id++, "leaf " + j, "", OWNER).setParentEntry(child);
+                }
+                child.setParentEntry(root);
+            }
+        }
+    }
+
+    @Benchmark
+    public UserPermission cascadeToRoot(DeepTree tree) {
+        return tree.leaf.getUserPermissionWithCascade(GRANTED);
+    }
+
+    @Benchmark
+    public UserPermission cascadeMiss(DeepTree tree) {
+        return tree.leaf.getUserPermissionWithCascade(STRANGER);
+    }
+
+    @Benchmark
+    public boolean canUserAccess(DeepTree tree) {
+        return tree.leaf.canUserAccess(GRANTED);
+    }
+
+    @Benchmark
+    public List<Entry> descendants(WideTree tree) {
+        return tree.root.getDescendants();
+    }
+}
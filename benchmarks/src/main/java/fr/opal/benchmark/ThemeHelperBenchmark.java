@@ -0,0 +1,47 @@
+package fr.opal.benchmark;
+
+import fr.opal.type.SessionSettings;
+import fr.opal.type.StyleColor;
+import fr.opal.type.StylePalette;
+import fr.opal.util.ThemeHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Theme style rewriting, run once per styled node whenever settings change
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ThemeHelperBenchmark {
+
+    private final SessionSettings settings = new SessionSettings(16, StylePalette.DARK, StyleColor.GREEN);
+
+    /**
+     * A node that was already themed once, so every variable is replaced
+     */
+    private final String themedStyle = ThemeHelper.updateStyle("-fx-padding: 4px; -fx-background-radius: 6px;",
+            new SessionSettings());
+
+    @Benchmark
+    public String unstyledNode() {
+        return ThemeHelper.updateStyle(null, settings);
+    }
+
+    @Benchmark
+    public String restyledNode() {
+        return ThemeHelper.updateStyle(themedStyle, settings);
+    }
+}
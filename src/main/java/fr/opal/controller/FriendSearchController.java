@@ -1,24 +1,53 @@
 package fr.opal.controller;
 
+import fr.opal.facade.AsyncFriendsFacade;
+import fr.opal.facade.AsyncScope;
 import fr.opal.facade.AuthFacade;
-import fr.opal.facade.FriendsFacade;
 import fr.opal.facade.SessionPropertiesFacade;
+import fr.opal.service.UserSearchIndex;
+import fr.opal.type.RelationshipStatus;
 import fr.opal.type.Session;
 import fr.opal.type.User;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for the friend search view.
+ * Searches as the user types: keystrokes are debounced, a newer query cancels the one in flight,
+ * and narrowing a recent query is answered from its cached results.
  */
 public class FriendSearchController {
 
+    private static final int DEBOUNCE_MS = 250;
+
+    /**
+     * Recent queries kept with their results
+     */
+    private static final int RESULT_CACHE_SIZE = 32;
+
+    private static final long RESULT_CACHE_TTL_MS = 30_000;
+
+    /**
+     * Result items added per pulse, so a long list never holds the FX thread
+     */
+    private static final int RENDER_BATCH_SIZE = 10;
+
     @FXML
     private VBox rootPane;
     @FXML
@@ -28,13 +57,28 @@ public class FriendSearchController {
     @FXML
     private VBox searchResultsContainer;
 
-    private FriendsFacade friendsFacade;
+    private AsyncFriendsFacade asyncFriendsFacade;
     private AuthFacade authFacade;
     private SessionPropertiesFacade sessionPropertiesFacade;
     private Session currentSession;
 
+    // Calls of the current query only, cancelled when a newer one starts
+    private final AsyncScope pendingSearch = new AsyncScope();
+    // Relationship changes, whose results are dropped once the view is closed; the writes still complete
+    private final AsyncScope pendingActions = new AsyncScope();
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(DEBOUNCE_MS));
+    // Only touched on the FX thread; incremented per query so stale results are dropped
+    private int searchGeneration;
+    private final Map<String, CachedResults> resultCache =
+            new LinkedHashMap<>(RESULT_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResults> eldest) {
+                    return size() > RESULT_CACHE_SIZE;
+                }
+            };
+
     public FriendSearchController() {
-        this.friendsFacade = FriendsFacade.getInstance();
+        this.asyncFriendsFacade = AsyncFriendsFacade.getInstance();
         this.authFacade = AuthFacade.getInstance();
         this.sessionPropertiesFacade = SessionPropertiesFacade.getInstance();
     }
@@ -53,8 +97,21 @@ public class FriendSearchController {
             });
         }
         
-        // Set up search on Enter key press
+        // Search as the user types, once typing pauses
+        searchDelay.setOnFinished(e -> runSearch(searchField.getText().trim()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+        
+        // Enter searches right away
         searchField.setOnAction(e -> handleSearch());
+        
+        // Nothing pending is needed once the view is closed
+        rootPane.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                searchDelay.stop();
+                pendingSearch.cancelAll();
+                pendingActions.cancelAll();
+            }
+        });
     }
 
     /**
@@ -69,38 +126,132 @@ public class FriendSearchController {
             return;
         }
         
-        ArrayList<User> results = friendsFacade.searchUsers(query);
-        displaySearchResults(results);
+        searchDelay.stop();
+        runSearch(query);
+    }
+
+    /**
+     * Searches users for a query, replacing any search still running.
+     * Results stay on screen until the new ones are ready.
+     */
+    private void runSearch(String query) {
+        pendingSearch.cancelAll();
+        int generation = ++searchGeneration;
+        
+        if (query.isEmpty()) {
+            searchResultsContainer.getChildren().clear();
+            return;
+        }
+        
+        List<User> cached = cachedResults(query);
+        if (cached != null) {
+            displaySearchResults(generation, cached);
+            return;
+        }
+        
+        pendingSearch.track(asyncFriendsFacade.searchUsers(query))
+            .thenAccept(results -> {
+                resultCache.put(cacheKey(query), new CachedResults(results));
+                displaySearchResults(generation, results);
+            })
+            .exceptionally(error -> showAsyncError("Search failed", error));
     }
 
     /**
-     * Displays search results.
+     * Results of a recent query, or of a shorter one narrowed locally.
+     * Results not cut by the search limit hold every match of a longer query, as a
+     * username containing the longer query also contains its prefix.
+     *
+     * @return the results, or null if the backend must be queried
      */
-    private void displaySearchResults(ArrayList<User> results) {
-        searchResultsContainer.getChildren().clear();
+    private List<User> cachedResults(String query) {
+        String key = cacheKey(query);
+        long now = System.currentTimeMillis();
+        resultCache.values().removeIf(entry -> now - entry.cachedAt > RESULT_CACHE_TTL_MS);
+        
+        CachedResults exact = resultCache.get(key);
+        if (exact != null) {
+            return exact.users;
+        }
+        for (int end = key.length() - 1; end > 0; end--) {
+            CachedResults shorter = resultCache.get(key.substring(0, end));
+            if (shorter != null && shorter.users.size() < UserSearchIndex.DEFAULT_LIMIT) {
+                List<User> narrowed = UserSearchIndex.narrow(shorter.users, query, UserSearchIndex.DEFAULT_LIMIT);
+                // Keep the shorter query's age, so narrowing never extends how long results live
+                resultCache.put(key, new CachedResults(narrowed, shorter.cachedAt));
+                return narrowed;
+            }
+        }
+        return null;
+    }
+
+    private static String cacheKey(String query) {
+        return query.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Displays search results once their relationships are loaded.
+     */
+    private void displaySearchResults(int generation, List<User> results) {
+        if (generation != searchGeneration) {
+            return;
+        }
+        
+        // Don't show the current user in results
+        List<User> others = new ArrayList<>();
+        List<Integer> otherIds = new ArrayList<>();
+        for (User user : results) {
+            if (user.getId() != currentSession.getUserId()) {
+                others.add(user);
+                otherIds.add(user.getId());
+            }
+        }
         
-        if (results.isEmpty()) {
+        if (others.isEmpty()) {
+            searchResultsContainer.getChildren().clear();
             Label emptyLabel = new Label("No users found");
             emptyLabel.getStyleClass().add("muted-label");
             searchResultsContainer.getChildren().add(emptyLabel);
             return;
         }
         
-        for (User user : results) {
-            // Don't show the current user in results
-            if (user.getId() == currentSession.getUserId()) {
-                continue;
+        // Counters and relationships of every result in one lookup
+        pendingSearch.track(asyncFriendsFacade.getRelationshipStatuses(currentSession.getUserId(), otherIds))
+            .thenAccept(statuses -> {
+                searchResultsContainer.getChildren().clear();
+                renderResults(generation, others, statuses, 0);
+            })
+            .exceptionally(error -> showAsyncError("Search failed", error));
+    }
+
+    /**
+     * Adds result items a batch at a time, yielding to the FX thread between batches.
+     * Stops as soon as a newer search has started.
+     */
+    private void renderResults(int generation, List<User> users, Map<Integer, RelationshipStatus> statuses, int from) {
+        if (generation != searchGeneration) {
+            return;
+        }
+        
+        int to = Math.min(from + RENDER_BATCH_SIZE, users.size());
+        List<HBox> items = new ArrayList<>(to - from);
+        for (User user : users.subList(from, to)) {
+            RelationshipStatus status = statuses.get(user.getId());
+            if (status != null) {
+                items.add(createUserItem(user, status));
             }
-            
-            HBox userItem = createUserItem(user);
-            searchResultsContainer.getChildren().add(userItem);
+        }
+        searchResultsContainer.getChildren().addAll(items);
+        
+        if (to < users.size()) {
+            Platform.runLater(() -> renderResults(generation, users, statuses, to));
         }
     }
 
     /**
      * Creates a UI item for a search result.
      */
-    private HBox createUserItem(User user) {
+    private HBox createUserItem(User user, RelationshipStatus status) {
         HBox item = new HBox(10);
         item.setPadding(new Insets(10));
         item.getStyleClass().add("search-result-item");
@@ -110,8 +261,8 @@ public class FriendSearchController {
         usernameLabel.getStyleClass().add("title-label");
         
         // Friend/Follower counts
-        int friendCount = friendsFacade.getFriendCount(user.getId());
-        int followerCount = friendsFacade.getFollowerCount(user.getId());
+        int friendCount = status.getFriendCount();
+        int followerCount = status.getFollowerCount();
         Label statsLabel = new Label("Friends: " + friendCount + "  Followers: " + followerCount);
         statsLabel.getStyleClass().add("subtitle-label");
         
@@ -122,14 +273,13 @@ public class FriendSearchController {
         // Action buttons
         HBox buttonBox = new HBox(5);
         
-        int currentUserId = currentSession.getUserId();
         int targetUserId = user.getId();
         
-        // Check relationships
-        boolean isBlocked = friendsFacade.isBlocked(currentUserId, targetUserId);
-        boolean isFriend = friendsFacade.isFriend(currentUserId, targetUserId);
-        boolean isFollowing = friendsFacade.isFollowing(currentUserId, targetUserId);
-        boolean hasPendingRequest = friendsFacade.hasPendingFriendRequest(currentUserId, targetUserId);
+        // Relationships
+        boolean isBlocked = status.isBlocked();
+        boolean isFriend = status.isFriend();
+        boolean isFollowing = status.isFollowing();
+        boolean hasPendingRequest = status.hasPendingRequest();
         
         if (isBlocked) {
             // User is blocked, disable actions
@@ -189,36 +339,21 @@ public class FriendSearchController {
      * Handles sending a friend request.
      */
     private void handleFriendRequest(int targetUserId) {
-        boolean success = friendsFacade.sendFriendRequest(currentSession.getUserId(), targetUserId);
-        if (success) {
-            handleSearch(); // Refresh results
-        } else {
-            showError("Failed to send friend request");
-        }
+        runAction(asyncFriendsFacade.sendFriendRequest(currentSession.getUserId(), targetUserId), "Failed to send friend request");
     }
 
     /**
      * Handles following a user.
      */
     private void handleFollow(int targetUserId) {
-        boolean success = friendsFacade.follow(currentSession.getUserId(), targetUserId);
-        if (success) {
-            handleSearch(); // Refresh results
-        } else {
-            showError("Failed to follow user");
-        }
+        runAction(asyncFriendsFacade.follow(currentSession.getUserId(), targetUserId), "Failed to follow user");
     }
 
     /**
      * Handles unfollowing a user.
      */
     private void handleUnfollow(int targetUserId) {
-        boolean success = friendsFacade.unfollow(currentSession.getUserId(), targetUserId);
-        if (success) {
-            handleSearch(); // Refresh results
-        } else {
-            showError("Failed to unfollow user");
-        }
+        runAction(asyncFriendsFacade.unfollow(currentSession.getUserId(), targetUserId), "Failed to unfollow user");
     }
 
     /**
@@ -232,14 +367,62 @@ public class FriendSearchController {
         
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                boolean success = friendsFacade.block(currentSession.getUserId(), targetUserId);
+                runAction(asyncFriendsFacade.block(currentSession.getUserId(), targetUserId), "Failed to block user");
+            }
+        });
+    }
+
+    /**
+     * Refreshes the results once a relationship change succeeds.
+     * Runs off the FX thread, which would otherwise wait for a search holding the facade.
+     */
+    private void runAction(CompletableFuture<Boolean> action, String failureMessage) {
+        pendingActions.track(action)
+            .thenAccept(success -> {
                 if (success) {
-                    handleSearch(); // Refresh results
+                    refreshResults();
                 } else {
-                    showError("Failed to block user");
+                    showError(failureMessage);
                 }
-            }
-        });
+            })
+            .exceptionally(error -> showAsyncError(failureMessage, error));
+    }
+
+    /**
+     * Reloads the displayed results after a relationship change.
+     * Cached users are still valid; their relationships are always loaded fresh.
+     */
+    private void refreshResults() {
+        searchDelay.stop();
+        runSearch(searchField.getText().trim());
+    }
+
+    /**
+     * Shows the error of a failed async call, ignoring calls cancelled by a newer search or by closing the view.
+     */
+    private Void showAsyncError(String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof CancellationException)) {
+            showError(message + ": " + cause.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Results cached for a query
+     */
+    private static final class CachedResults {
+        final List<User> users;
+        final long cachedAt;
+
+        CachedResults(List<User> users) {
+            this(users, System.currentTimeMillis());
+        }
+
+        CachedResults(List<User> users, long cachedAt) {
+            this.users = users;
+            this.cachedAt = cachedAt;
+        }
     }
 
     /**
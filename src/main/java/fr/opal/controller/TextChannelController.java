@@ -1,6 +1,8 @@
 package fr.opal.controller;
 
 import fr.opal.facade.SessionPropertiesFacade;
+import fr.opal.facade.AsyncChannelFacade;
+import fr.opal.facade.AsyncScope;
 import fr.opal.facade.ChannelFacade;
 import fr.opal.type.User;
 import fr.opal.type.Message;
@@ -10,12 +12,19 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for text channel messaging UI
  * Strictly uses Facades only - no direct access to Managers or DAOs
  */
 public class TextChannelController {
+    /**
+     * Number of messages fetched per page
+     */
+    private static final int PAGE_SIZE = 50;
+
     @FXML
     private VBox rootPane;
     
@@ -28,6 +37,9 @@ public class TextChannelController {
     @FXML
     private ListView<Message> messagesList;
     
+    @FXML
+    private Button loadOlderBtn;
+    
     @FXML
     private TextArea messageInput;
     
@@ -39,6 +51,8 @@ public class TextChannelController {
 
     private SessionPropertiesFacade sessionPropertiesFacade;
     private ChannelFacade channelFacade;
+    private AsyncChannelFacade asyncChannelFacade;
+    private final AsyncScope pendingCalls = new AsyncScope();
     private User currentUser;
     private int currentChannelId;
 
@@ -49,6 +63,7 @@ public class TextChannelController {
     public void initialize() {
         sessionPropertiesFacade = SessionPropertiesFacade.getInstance();
         channelFacade = ChannelFacade.getInstance();
+        asyncChannelFacade = AsyncChannelFacade.getInstance();
         
         // Get current user from facade
         currentUser = channelFacade.getAuthenticatedUser();
@@ -85,6 +100,8 @@ public class TextChannelController {
      * Sets the channel ID and friend info, then loads messages
      */
     public void setChannelAndFriend(int channelId, User friend) {
+        // Drop loads still running for a previous channel, sends complete on their own
+        pendingCalls.cancelAll();
         this.currentChannelId = channelId;
         
         // Update the title to show who we're chatting with
@@ -97,24 +114,82 @@ public class TextChannelController {
     }
 
     /**
-     * Load messages for the current channel
+     * Load the most recent page of messages for the current channel
      */
     private void loadChannelMessages() {
         if (currentChannelId <= 0) {
             return; // Channel not yet set
         }
         
-        try {
-            messagesList.getItems().clear();
-            List<Message> messages = channelFacade.getMessages(currentChannelId);
-            messagesList.getItems().addAll(messages);
-            
-            // Scroll to latest message
-            if (!messages.isEmpty()) {
-                messagesList.scrollTo(messages.size() - 1);
-            }
-        } catch (ChannelFacade.InvalidChannelException e) {
-            showErrorDialog("Error loading messages", e.getMessage());
+        pendingCalls.track(asyncChannelFacade.getMessagesBefore(currentChannelId, null, 0, PAGE_SIZE))
+            .thenAccept(messages -> {
+                messagesList.getItems().setAll(messages);
+                updateLoadOlderButton(messages.size());
+                
+                // Scroll to latest message
+                if (!messages.isEmpty()) {
+                    messagesList.scrollTo(messages.size() - 1);
+                }
+            })
+            .exceptionally(error -> showAsyncError("Error loading messages", error));
+    }
+
+    /**
+     * Prepends the page of messages older than the first one displayed
+     */
+    @FXML
+    public void onLoadOlderMessages() {
+        List<Message> items = messagesList.getItems();
+        if (currentChannelId <= 0 || items.isEmpty()) {
+            return;
+        }
+        
+        // The cursor is the first message's position, still valid if that message was deleted since
+        Message first = items.get(0);
+        pendingCalls.track(asyncChannelFacade.getMessagesBefore(currentChannelId, first.getCreatedAt(), first.getId(), PAGE_SIZE))
+            .thenAccept(older -> {
+                items.addAll(0, older);
+                updateLoadOlderButton(older.size());
+                
+                // Keep the previously first message in view
+                messagesList.scrollTo(older.size());
+            })
+            .exceptionally(error -> showAsyncError("Error loading messages", error));
+    }
+
+    /**
+     * Appends messages newer than the last one displayed, page by page
+     */
+    private void loadNewMessages() {
+        List<Message> items = messagesList.getItems();
+        if (items.isEmpty()) {
+            loadChannelMessages();
+            return;
+        }
+        
+        Message last = items.get(items.size() - 1);
+        pendingCalls.track(asyncChannelFacade.getMessagesAfter(currentChannelId, last.getCreatedAt(), last.getId(), PAGE_SIZE))
+            .thenAccept(newer -> {
+                items.addAll(newer);
+                if (newer.size() == PAGE_SIZE) {
+                    loadNewMessages();
+                    return;
+                }
+                
+                // Scroll to latest message
+                messagesList.scrollTo(items.size() - 1);
+            })
+            .exceptionally(error -> showAsyncError("Error loading messages", error));
+    }
+
+    /**
+     * Shows the load button only while a full page came back, older messages may remain
+     */
+    private void updateLoadOlderButton(int pageSize) {
+        if (loadOlderBtn != null) {
+            boolean mayHaveMore = pageSize == PAGE_SIZE;
+            loadOlderBtn.setVisible(mayHaveMore);
+            loadOlderBtn.setManaged(mayHaveMore);
         }
     }
 
@@ -124,21 +199,32 @@ public class TextChannelController {
     @FXML
     public void onSendMessage() {
         String messageText = messageInput.getText().trim();
+        sendMessageBtn.setDisable(true);
         
-        try {
-            // Delegate all validation and message creation to facade
-            channelFacade.sendMessage(currentChannelId, currentUser, messageText);
-            
-            // Clear input and refresh display
-            messageInput.clear();
-            loadChannelMessages();
-        } catch (ChannelFacade.AuthenticationException e) {
-            showErrorDialog("Error", e.getMessage());
-        } catch (ChannelFacade.InvalidChannelException e) {
-            showErrorDialog("Error", e.getMessage());
-        } catch (ChannelFacade.MessageException e) {
-            showErrorDialog("Error", e.getMessage());
+        // Delegate all validation and message creation to facade.
+        // Not tracked in pendingCalls: leaving the channel must not interrupt the write
+        int channelId = currentChannelId;
+        asyncChannelFacade.sendMessage(channelId, currentUser, messageText)
+            .thenAccept(message -> {
+                // Clear input and fetch only what is newer than the last displayed message
+                messageInput.clear();
+                if (channelId == currentChannelId) {
+                    loadNewMessages();
+                }
+            })
+            .exceptionally(error -> showAsyncError("Error", error))
+            .whenComplete((ignored, error) -> sendMessageBtn.setDisable(false));
+    }
+
+    /**
+     * Reports a failed async call, ignoring calls cancelled because the view closed
+     */
+    private Void showAsyncError(String title, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof CancellationException)) {
+            showErrorDialog(title, cause.getMessage());
         }
+        return null;
     }
 
     @FXML
@@ -151,6 +237,8 @@ public class TextChannelController {
      */
     @FXML
     public void closeChannel() {
+        // Nothing loaded for this view is needed anymore, sends complete on their own
+        pendingCalls.cancelAll();
         try {
             // Close the current window by getting the stage from sendMessageBtn (guaranteed to be initialized)
             Stage stage = (Stage) sendMessageBtn.getScene().getWindow();
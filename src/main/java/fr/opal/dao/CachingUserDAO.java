@@ -0,0 +1,94 @@
+package fr.opal.dao;
+
+import fr.opal.db.UnitOfWork;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserDAO decorator that serves user lookups from the shared UserCache.
+ * Writes go to the wrapped DAO and invalidate the affected user.
+ */
+public class CachingUserDAO extends UserDAO {
+    private final UserDAO delegate;
+    private final UserCache cache;
+
+    public CachingUserDAO(UserDAO delegate) {
+        this(delegate, UserCache.getInstance());
+    }
+
+    public CachingUserDAO(UserDAO delegate, UserCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public User getUserById(String username) {
+        return cache.getByUsername(username, () -> delegate.getUserById(username));
+    }
+
+    @Override
+    public User getUserByDatabaseId(int id) {
+        return cache.getById(id, () -> delegate.getUserByDatabaseId(id));
+    }
+
+    @Override
+    public List<User> getUsersAfter(int afterId, int limit) {
+        // Bulk scans would only evict the users actually being looked up
+        return delegate.getUsersAfter(afterId, limit);
+    }
+
+    @Override
+    public User createUser(String username, String password) {
+        cache.invalidate(username);
+        User created = delegate.createUser(username, password);
+        // Inside a unit of work the row may still be rolled back, the first lookup after commit caches it
+        if (!UnitOfWork.isOpen()) {
+            cache.put(created);
+        }
+        return created;
+    }
+
+    @Override
+    public List<User> createUsers(Map<String, String> passwordsByUsername) {
+        // Bulk inserts are not cached, like bulk scans
+        for (String username : passwordsByUsername.keySet()) {
+            cache.invalidate(username);
+        }
+        return delegate.createUsers(passwordsByUsername);
+    }
+
+    @Override
+    public Profile getProfile(int userId) {
+        return delegate.getProfile(userId);
+    }
+
+    @Override
+    public void updateProfile(int userId, Profile profile) {
+        delegate.updateProfile(userId, profile);
+        cache.invalidate(userId);
+    }
+
+    @Override
+    public List<Permission> listPermissions(int userId) {
+        return delegate.listPermissions(userId);
+    }
+
+    @Override
+    public Permission createPermission(int userId, String permissionName) {
+        return delegate.createPermission(userId, permissionName);
+    }
+
+    @Override
+    public void updatePermission(int permissionId, String permissionName) {
+        delegate.updatePermission(permissionId, permissionName);
+    }
+
+    @Override
+    public void deletePermission(int permissionId) {
+        delegate.deletePermission(permissionId);
+    }
+}
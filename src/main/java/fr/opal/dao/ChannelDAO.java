@@ -2,7 +2,11 @@ package fr.opal.dao;
 
 import fr.opal.type.Channel;
 import fr.opal.type.Message;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Abstract DAO for Channel and Message persistence operations.
@@ -19,6 +23,19 @@ public abstract class ChannelDAO {
      */
     public abstract int createChannel();
 
+    /**
+     * Creates several channels at once
+     * Database implementations send them as one batch in a single transaction
+     * @return the generated channel IDs, in creation order
+     */
+    public int[] createChannels(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = createChannel();
+        }
+        return ids;
+    }
+
     /**
      * Retrieves a channel by its ID
      */
@@ -36,20 +53,58 @@ public abstract class ChannelDAO {
      */
     public abstract List<Message> getMessagesForChannel(int channelId);
 
+    /**
+     * Streams all messages of a channel, ordered by creation date ascending, without loading them all in memory.
+     * The stream holds database resources and must be closed, typically with try-with-resources.
+     */
+    public abstract Stream<Message> streamMessagesForChannel(int channelId);
+
     /**
      * Retrieves a limited number of recent messages for a channel
      * @param channelId the channel ID
      * @param limit maximum number of messages to return
-     * @return messages ordered by creation date descending (most recent first)
+     * @return the most recent messages, ordered by creation date ascending
      */
     public abstract List<Message> getRecentMessages(int channelId, int limit);
 
+    /**
+     * Retrieves the page of messages just older than a cursor (keyset pagination on created_at, id)
+     * The cursor is the position of a message already held by the caller, so paging goes on
+     * even if that message has since been deleted.
+     * @param channelId the channel ID
+     * @param beforeCreatedAt creation date of the cursor message, or null for the most recent page
+     * @param beforeMessageId cursor message ID, or 0 for the most recent page
+     * @param limit maximum number of messages to return
+     * @return messages ordered by creation date ascending
+     */
+    public abstract List<Message> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit);
+
+    /**
+     * Retrieves the page of messages just newer than a cursor (keyset pagination on created_at, id)
+     * @param channelId the channel ID
+     * @param afterCreatedAt creation date of the cursor message, or null for the oldest page
+     * @param afterMessageId cursor message ID, or 0 for the oldest page
+     * @param limit maximum number of messages to return
+     * @return messages ordered by creation date ascending
+     */
+    public abstract List<Message> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit);
+
     /**
      * Saves a new message to the database
      * @return the generated message ID
      */
     public abstract long saveMessage(Message message);
 
+    /**
+     * Saves several messages at once and sets their generated IDs
+     * Database implementations send them as one batch in a single transaction
+     */
+    public void saveMessages(List<Message> messages) {
+        for (Message message : messages) {
+            saveMessage(message);
+        }
+    }
+
     /**
      * Deletes a message from the database
      */
@@ -61,7 +116,19 @@ public abstract class ChannelDAO {
     public abstract void updateMessageContent(long messageId, String newContent);
 
     /**
-     * Gets the total message count for a channel
+     * Gets the total message count for a channel.
+     * Read from a counter maintained on every message write, so it costs the same for any channel size.
      */
     public abstract int getMessageCount(int channelId);
+
+    /**
+     * Number of messages per channel in a batch, for the message counters
+     */
+    protected static Map<Integer, Integer> countByChannel(List<Message> messages) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Message message : messages) {
+            counts.merge(message.getChannelId(), 1, Integer::sum);
+        }
+        return counts;
+    }
 }
@@ -24,6 +24,16 @@ public abstract class EntryDAO {
      */
     public abstract int createEntry(Entry entry);
 
+    /**
+     * Creates several new entries, each with its channel and permissions, and sets their IDs
+     * Database implementations send them as one batch per table in a single transaction
+     */
+    public void createEntries(List<Entry> entries) {
+        for (Entry entry : entries) {
+            createEntry(entry);
+        }
+    }
+
     /**
      * Deletes an entry from the database
      */
@@ -31,9 +41,17 @@ public abstract class EntryDAO {
 
     /**
      * Retrieves all root entries (entries without parents)
+     * Metadata only: id, title, author, channel and timestamps - content is not loaded
      */
     public abstract List<Entry> getRootEntries();
 
+    /**
+     * Finds the root entry with exactly the given title, case-sensitive
+     * Metadata only, like getRootEntries()
+     * @return the matching root entry, or null if there is none
+     */
+    public abstract Entry findRootByTitle(String title);
+
     /**
      * Retrieves all child entries of a given parent
      */
@@ -1,7 +1,10 @@
 package fr.opal.dao;
 
+import fr.opal.type.RelationshipStatus;
 import fr.opal.type.User;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Interface definition for managing friend relationships between users.
@@ -56,6 +59,22 @@ public abstract class FriendsDAO {
      */
     public abstract void addFriend(int fromUserId, int toUserId);
 
+    /**
+     * Adds several friendships at once, each with a DM channel when accepted.
+     * Database implementations send them as one batch in a single transaction.
+     *
+     * @param pairs The {requester ID, receiver ID} of each friendship
+     * @param accepted true to add accepted friendships, false to leave them pending
+     */
+    public void addFriendships(List<int[]> pairs, boolean accepted) {
+        for (int[] pair : pairs) {
+            addFriend(pair[0], pair[1]);
+            if (accepted) {
+                acceptFriendRequest(pair[0], pair[1]);
+            }
+        }
+    }
+
     /**
      * Removes a friend relationship between two users.
      *
@@ -72,6 +91,18 @@ public abstract class FriendsDAO {
      */
     public abstract void follow(int followerId, int followedId);
 
+    /**
+     * Adds several follow relationships at once.
+     * Database implementations send them as one batch in a single transaction.
+     *
+     * @param pairs The {follower ID, followed ID} of each follow
+     */
+    public void addFollows(List<int[]> pairs) {
+        for (int[] pair : pairs) {
+            follow(pair[0], pair[1]);
+        }
+    }
+
     /**
      * Removes a follow relationship.
      *
@@ -98,6 +129,7 @@ public abstract class FriendsDAO {
 
     /**
      * Gets the count of friends for a user.
+     * Read from a counter maintained by the friendship writes, not counted per call.
      *
      * @param userId The ID of the user
      * @return The number of friends
@@ -106,20 +138,13 @@ public abstract class FriendsDAO {
 
     /**
      * Gets the count of followers for a user.
+     * Read from a counter maintained by the follow writes, not counted per call.
      *
      * @param userId The ID of the user
      * @return The number of followers
      */
     public abstract int getFollowerCount(int userId);
 
-    /**
-     * Searches for users by username.
-     *
-     * @param query The search query
-     * @return ArrayList of User objects matching the query
-     */
-    public abstract ArrayList<User> searchUsers(String query);
-
     /**
      * Checks if a user has blocked another user.
      *
@@ -156,6 +181,16 @@ public abstract class FriendsDAO {
      */
     public abstract boolean hasPendingFriendRequest(int fromUserId, int toUserId);
 
+    /**
+     * Gets the relationship of several users to a viewer, with their counters, in a single lookup
+     * instead of one isBlocked/isFriend/isFollowing/hasPendingFriendRequest call per user.
+     *
+     * @param viewerId The ID of the viewing user
+     * @param userIds The IDs of the users to describe
+     * @return Status per user ID, in the order given; unknown IDs are left out
+     */
+    public abstract Map<Integer, RelationshipStatus> getRelationshipStatuses(int viewerId, List<Integer> userIds);
+
     /**
      * Accepts a pending friend request.
      *
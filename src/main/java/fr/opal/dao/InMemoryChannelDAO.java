@@ -0,0 +1,176 @@
+package fr.opal.dao;
+
+import fr.opal.dao.InMemoryDatabase.StoredMessage;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Channel;
+import fr.opal.type.Message;
+import fr.opal.type.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory implementation of ChannelDAO.
+ * Message IDs and timestamps are assigned together, so ID order is the (created_at, id) order
+ * used by the MySQL keyset queries and pages are plain range views of the channel's map,
+ * bounded by the cursor ID alone.
+ */
+public class InMemoryChannelDAO extends ChannelDAO {
+    private final InMemoryDatabase db;
+
+    public InMemoryChannelDAO(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    // ==================== Channel Operations ====================
+
+    @Override
+    public int createChannel() {
+        return db.createChannel();
+    }
+
+    @Override
+    public Channel getChannelById(int id) {
+        Date createdAt = db.channels.get(id);
+        return createdAt != null ? new Channel(id, createdAt) : null;
+    }
+
+    @Override
+    public void deleteChannel(int id) {
+        db.deleteChannel(id);
+    }
+
+    // ==================== Message Operations ====================
+
+    @Override
+    public List<Message> getMessagesForChannel(int channelId) {
+        return toMessages(messagesOf(channelId).values());
+    }
+
+    @Override
+    public Stream<Message> streamMessagesForChannel(int channelId) {
+        Map<Integer, User> senders = new HashMap<>();
+        return messagesOf(channelId).values().stream().map(stored -> toMessage(stored, senders));
+    }
+
+    @Override
+    public List<Message> getRecentMessages(int channelId, int limit) {
+        return getMessagesBefore(channelId, null, 0, limit);
+    }
+
+    @Override
+    public List<Message> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit) {
+        NavigableMap<Long, StoredMessage> messages = messagesOf(channelId);
+        if (beforeCreatedAt != null) {
+            // The cursor message may have been deleted since, its ID still bounds the page
+            messages = messages.headMap(beforeMessageId, false);
+        }
+        List<StoredMessage> page = new ArrayList<>(limit);
+        for (StoredMessage stored : messages.descendingMap().values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(stored);
+        }
+        Collections.reverse(page);
+        return toMessages(page);
+    }
+
+    @Override
+    public List<Message> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit) {
+        NavigableMap<Long, StoredMessage> messages = messagesOf(channelId);
+        if (afterCreatedAt != null) {
+            messages = messages.tailMap(afterMessageId, false);
+        }
+        List<StoredMessage> page = new ArrayList<>(limit);
+        for (StoredMessage stored : messages.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(stored);
+        }
+        return toMessages(page);
+    }
+
+    @Override
+    public long saveMessage(Message message) {
+        NavigableMap<Long, StoredMessage> messages = db.messagesByChannel.get(message.getChannelId());
+        if (messages == null) {
+            throw new DataAccessException("Error saving message (unknown channel: " + message.getChannelId() + ")");
+        }
+        // ID and timestamp under one lock so ID order never disagrees with time order
+        synchronized (messages) {
+            long id = db.nextMessageId();
+            Date createdAt = new Date();
+            messages.put(id, new StoredMessage(id, message.getChannelId(), message.getSender().getId(),
+                    message.getContent(), createdAt));
+            db.messageChannels.put(id, message.getChannelId());
+            AtomicInteger count = db.messageCounts.get(message.getChannelId());
+            if (count != null) {
+                count.incrementAndGet();
+            }
+            message.setId(id);
+            return id;
+        }
+    }
+
+    @Override
+    public void deleteMessage(long messageId) {
+        Integer channelId = db.messageChannels.remove(messageId);
+        if (channelId != null && messagesOf(channelId).remove(messageId) != null) {
+            AtomicInteger count = db.messageCounts.get(channelId);
+            if (count != null) {
+                count.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void updateMessageContent(long messageId, String newContent) {
+        Integer channelId = db.messageChannels.get(messageId);
+        StoredMessage stored = channelId != null ? messagesOf(channelId).get(messageId) : null;
+        if (stored != null) {
+            stored.content = newContent;
+        }
+    }
+
+    @Override
+    public int getMessageCount(int channelId) {
+        AtomicInteger count = db.messageCounts.get(channelId);
+        return count != null ? count.get() : 0;
+    }
+
+    private NavigableMap<Long, StoredMessage> messagesOf(int channelId) {
+        NavigableMap<Long, StoredMessage> messages = db.messagesByChannel.get(channelId);
+        return messages != null ? messages : Collections.emptyNavigableMap();
+    }
+
+    private List<Message> toMessages(Collection<StoredMessage> rows) {
+        List<Message> messages = new ArrayList<>(rows.size());
+        Map<Integer, User> senders = new HashMap<>();
+        for (StoredMessage stored : rows) {
+            messages.add(toMessage(stored, senders));
+        }
+        return messages;
+    }
+
+    /**
+     * Builds a Message from its row, resolving the sender like the LEFT JOIN on users
+     */
+    private Message toMessage(StoredMessage stored, Map<Integer, User> senders) {
+        User sender = senders.computeIfAbsent(stored.senderId, id -> {
+            User user = db.users.get(id);
+            // Handle orphaned messages (sender deleted) - create placeholder user
+            return user != null ? user : new User(id, "[deleted]", "");
+        });
+        return new Message(stored.id, stored.channelId, sender, stored.content, stored.createdAt);
+    }
+}
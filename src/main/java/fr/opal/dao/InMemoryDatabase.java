@@ -0,0 +1,227 @@
+package fr.opal.dao;
+
+import fr.opal.type.EPermission;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.SessionSettings;
+import fr.opal.type.User;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tables shared by the in-memory DAOs, mirroring database_schema.sql.
+ * Rows live in concurrent maps keyed by their primary key, with secondary indexes kept
+ * next to them. Reads need no locking; writes that touch several maps synchronize on
+ * the database so indexes never disagree with the rows they point to.
+ */
+public class InMemoryDatabase {
+
+    // ==================== Users ====================
+
+    final NavigableMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    final Map<String, Integer> userIdsByUsername = new ConcurrentHashMap<>();
+    final Map<Integer, Profile> profiles = new ConcurrentHashMap<>();
+    final Map<Integer, Map<Integer, Permission>> permissionsByUser = new ConcurrentHashMap<>();
+    final Map<Integer, Integer> permissionOwners = new ConcurrentHashMap<>();
+    final Map<Integer, SessionSettings> sessionSettings = new ConcurrentHashMap<>();
+
+    // ==================== Relationships ====================
+
+    // Keyed by pairKey(user_id1, user_id2), like the unique_friendship index
+    final Map<Long, Friendship> friendships = new ConcurrentHashMap<>();
+    // Users sharing a friendship row with a user, in either direction and any status
+    final Map<Integer, Set<Integer>> friendshipPartners = new ConcurrentHashMap<>();
+    final Map<Integer, Set<Integer>> following = new ConcurrentHashMap<>();
+    final Map<Integer, Set<Integer>> followers = new ConcurrentHashMap<>();
+    final Map<Integer, Set<Integer>> blocking = new ConcurrentHashMap<>();
+    // Like the users.friend_count and users.follower_count columns, updated with the rows they count
+    final Map<Integer, Integer> friendCounts = new ConcurrentHashMap<>();
+    final Map<Integer, Integer> followerCounts = new ConcurrentHashMap<>();
+
+    // ==================== Channels ====================
+
+    final Map<Integer, Date> channels = new ConcurrentHashMap<>();
+    // Messages of a channel by ID; IDs are assigned in creation order
+    final Map<Integer, NavigableMap<Long, StoredMessage>> messagesByChannel = new ConcurrentHashMap<>();
+    final Map<Long, Integer> messageChannels = new ConcurrentHashMap<>();
+    // Like the channels.message_count column; the skip-list maps count their size by walking them
+    final Map<Integer, AtomicInteger> messageCounts = new ConcurrentHashMap<>();
+
+    // ==================== Entries ====================
+
+    final NavigableMap<Integer, StoredEntry> entries = new ConcurrentSkipListMap<>();
+    final Map<Integer, Set<Integer>> childrenByParent = new ConcurrentHashMap<>();
+
+    private final AtomicInteger userSequence = new AtomicInteger();
+    private final AtomicInteger permissionSequence = new AtomicInteger();
+    private final AtomicInteger channelSequence = new AtomicInteger();
+    private final AtomicLong messageSequence = new AtomicLong();
+    private final AtomicInteger entrySequence = new AtomicInteger();
+
+    int nextUserId() {
+        return userSequence.incrementAndGet();
+    }
+
+    int nextPermissionId() {
+        return permissionSequence.incrementAndGet();
+    }
+
+    long nextMessageId() {
+        return messageSequence.incrementAndGet();
+    }
+
+    int nextEntryId() {
+        return entrySequence.incrementAndGet();
+    }
+
+    /**
+     * Inserts a channel row, shared by ChannelDAO, EntryDAO and FriendsDAO like the channels table
+     */
+    int createChannel() {
+        int id = channelSequence.incrementAndGet();
+        channels.put(id, new Date());
+        messagesByChannel.put(id, new ConcurrentSkipListMap<>());
+        messageCounts.put(id, new AtomicInteger());
+        return id;
+    }
+
+    /**
+     * Deletes a channel, cascading to its messages and detaching friendships (ON DELETE SET NULL)
+     */
+    synchronized void deleteChannel(int id) {
+        channels.remove(id);
+        NavigableMap<Long, StoredMessage> messages = messagesByChannel.remove(id);
+        messageCounts.remove(id);
+        if (messages != null) {
+            for (Long messageId : messages.keySet()) {
+                messageChannels.remove(messageId);
+            }
+        }
+        for (Friendship friendship : friendships.values()) {
+            if (friendship.channelId == id) {
+                friendship.channelId = 0;
+            }
+        }
+    }
+
+    /**
+     * Resolves a user by username, or null if there is none
+     */
+    User findUser(String username) {
+        Integer id = username != null ? userIdsByUsername.get(username) : null;
+        return id != null ? users.get(id) : null;
+    }
+
+    static long pairKey(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    static Set<Integer> newIdSet() {
+        return new ConcurrentSkipListSet<>();
+    }
+
+    /**
+     * Empties every table and restarts ID sequences
+     */
+    public synchronized void clear() {
+        users.clear();
+        userIdsByUsername.clear();
+        profiles.clear();
+        permissionsByUser.clear();
+        permissionOwners.clear();
+        sessionSettings.clear();
+        friendships.clear();
+        friendshipPartners.clear();
+        following.clear();
+        followers.clear();
+        blocking.clear();
+        friendCounts.clear();
+        followerCounts.clear();
+        channels.clear();
+        messagesByChannel.clear();
+        messageChannels.clear();
+        messageCounts.clear();
+        entries.clear();
+        childrenByParent.clear();
+        userSequence.set(0);
+        permissionSequence.set(0);
+        channelSequence.set(0);
+        messageSequence.set(0);
+        entrySequence.set(0);
+    }
+
+    /**
+     * Row of the friendships table
+     */
+    static final class Friendship {
+        final int userId1;
+        final int userId2;
+        volatile String status = "PENDING";
+        volatile int channelId;
+
+        Friendship(int userId1, int userId2) {
+            this.userId1 = userId1;
+            this.userId2 = userId2;
+        }
+
+        boolean isAccepted() {
+            return "ACCEPTED".equals(status);
+        }
+
+        boolean isPending() {
+            return "PENDING".equals(status);
+        }
+    }
+
+    /**
+     * Row of the messages table; the sender is resolved on read, like the JOIN
+     */
+    static final class StoredMessage {
+        final long id;
+        final int channelId;
+        final int senderId;
+        final Date createdAt;
+        volatile String content;
+
+        StoredMessage(long id, int channelId, int senderId, String content, Date createdAt) {
+            this.id = id;
+            this.channelId = channelId;
+            this.senderId = senderId;
+            this.content = content;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Row of the entries table with its entry_permissions rows, keyed by username.
+     * A NONE permission is the NULL "explicitly denied" value.
+     */
+    static final class StoredEntry {
+        final int id;
+        final int authorId;
+        final int channelId;
+        final Date creationDate;
+        volatile String title;
+        volatile String content;
+        volatile Integer parentId;
+        volatile Date lastModified;
+        final Map<String, EPermission> permissions = new LinkedHashMap<>();
+
+        StoredEntry(int id, int authorId, int channelId, Date creationDate) {
+            this.id = id;
+            this.authorId = authorId;
+            this.channelId = channelId;
+            this.creationDate = creationDate;
+            this.lastModified = creationDate;
+        }
+    }
+}
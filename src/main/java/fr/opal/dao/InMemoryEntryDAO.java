@@ -0,0 +1,366 @@
+package fr.opal.dao;
+
+import fr.opal.dao.InMemoryDatabase.StoredEntry;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory implementation of EntryDAO.
+ * Returns the same object graphs as MySQLEntryDAO: the requested entry in full, its children
+ * minimal with permissions, and its ancestor chain up to the permission boundary.
+ */
+public class InMemoryEntryDAO extends EntryDAO {
+    /**
+     * Guard against corrupted parent cycles, like the recursive ancestor query
+     */
+    private static final int MAX_ANCESTOR_DEPTH = 256;
+
+    private final InMemoryDatabase db;
+    private final InMemoryChannelDAO channelDAO;
+
+    public InMemoryEntryDAO(InMemoryDatabase db) {
+        this.db = db;
+        this.channelDAO = new InMemoryChannelDAO(db);
+    }
+
+    /**
+     * Retrieves an entry by its ID with ALL data (eager load)
+     * Implements Depth-1 Radial strategy: current entry (full), parent chain, children (metadata+permissions)
+     */
+    @Override
+    public Entry getEntryById(int id) {
+        StoredEntry stored = db.entries.get(id);
+        if (stored == null) {
+            return null;
+        }
+
+        Entry entry = new Entry();
+        entry.setId(stored.id);
+        entry.setTitle(stored.title);
+        entry.setContent(stored.content);
+        entry.setChannelId(stored.channelId);
+        entry.setAuthor(db.users.get(stored.authorId));
+        entry.setMetadata(metadataOf(stored));
+        entry.setPermissionManager(loadPermissions(stored));
+
+        Integer parentId = stored.parentId;
+        if (parentId != null) {
+            linkParent(entry, loadParentChainWithPermissions(parentId));
+        }
+
+        if (entry.getChannelId() > 0) {
+            entry.setMessages(channelDAO.getMessagesForChannel(entry.getChannelId()));
+        }
+
+        List<Entry> children = getChildEntries(id);
+        for (Entry child : children) {
+            child.setPermissionManager(loadPermissions(db.entries.get(child.getId())));
+            // IMPORTANT: Set parent reference for permission cascading
+            linkParent(child, entry);
+        }
+        entry.setChildEntries((ArrayList<Entry>) children);
+        return entry;
+    }
+
+    /**
+     * Saves an entry (updates existing)
+     * Note: Messages are managed separately via ChannelDAO
+     */
+    @Override
+    public void saveEntry(Entry entry) {
+        StoredEntry stored = db.entries.get(entry.getId());
+        if (stored == null) {
+            return; // UPDATE of a missing row
+        }
+        stored.title = entry.getTitle();
+        stored.content = entry.getContent();
+        stored.lastModified = new Date();
+        moveEntry(stored, parentIdOf(entry));
+        savePermissions(stored, entry.getPermissionManager());
+    }
+
+    /**
+     * Creates a new entry with its own channel for comments
+     */
+    @Override
+    public int createEntry(Entry entry) {
+        // Ensure author exists and has valid ID
+        if (entry.getAuthor() == null || entry.getAuthor().getId() == 0) {
+            throw new DataAccessException("Entry author is missing or has invalid ID", null);
+        }
+        if (!db.users.containsKey(entry.getAuthor().getId())) {
+            throw new DataAccessException("Error creating entry: " + entry.getTitle()
+                    + " (unknown author " + entry.getAuthor().getId() + ")");
+        }
+        Integer parentId = parentIdOf(entry);
+        if (parentId != null && !db.entries.containsKey(parentId)) {
+            throw new DataAccessException("Error creating entry: " + entry.getTitle()
+                    + " (unknown parent " + parentId + ")");
+        }
+
+        synchronized (db) {
+            int channelId = db.createChannel();
+            StoredEntry stored = new StoredEntry(db.nextEntryId(), entry.getAuthor().getId(), channelId, new Date());
+            stored.title = entry.getTitle();
+            stored.content = entry.getContent();
+            stored.parentId = parentId;
+            db.entries.put(stored.id, stored);
+            if (parentId != null) {
+                db.childrenByParent.computeIfAbsent(parentId, key -> InMemoryDatabase.newIdSet()).add(stored.id);
+            }
+
+            entry.setChannelId(channelId);
+            entry.setId(stored.id);
+            savePermissions(stored, entry.getPermissionManager());
+            return stored.id;
+        }
+    }
+
+    /**
+     * Deletes an entry, cascading to its descendants (ON DELETE CASCADE on parent_id)
+     */
+    @Override
+    public void deleteEntry(int id) {
+        synchronized (db) {
+            StoredEntry stored = db.entries.get(id);
+            if (stored == null) {
+                return;
+            }
+            if (stored.parentId != null) {
+                childrenOf(stored.parentId).remove(id);
+            }
+
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.push(id);
+            while (!pending.isEmpty()) {
+                int current = pending.pop();
+                db.entries.remove(current);
+                Set<Integer> children = db.childrenByParent.remove(current);
+                if (children != null) {
+                    children.forEach(pending::push);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves all root entries (entries without parents)
+     * Metadata-only projection, content is not copied
+     */
+    @Override
+    public List<Entry> getRootEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (StoredEntry stored : db.entries.values()) {
+            if (stored.parentId == null) {
+                entries.add(buildEntrySummary(stored));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Finds a root entry by its exact title
+     */
+    @Override
+    public Entry findRootByTitle(String title) {
+        for (StoredEntry stored : db.entries.values()) {
+            if (stored.parentId == null && stored.title.equals(title)) {
+                return buildEntrySummary(stored);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves all child entries of a given parent (lazy load - only title, id)
+     */
+    @Override
+    public List<Entry> getChildEntries(int parentId) {
+        List<Entry> entries = new ArrayList<>();
+        for (Integer childId : childrenOf(parentId)) {
+            StoredEntry stored = db.entries.get(childId);
+            if (stored != null) {
+                entries.add(buildEntryMinimal(stored));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Updates the parent of an entry
+     */
+    @Override
+    public void updateEntryRelationships(Entry entry) {
+        StoredEntry stored = db.entries.get(entry.getId());
+        if (stored != null) {
+            moveEntry(stored, parentIdOf(entry));
+        }
+    }
+
+    /**
+     * Loads all entry data including comments and metadata
+     */
+    @Override
+    public Entry loadEntryWithDetails(int id) {
+        return getEntryById(id);
+    }
+
+    /**
+     * Loads the ancestor path of an entry, closest first.
+     * Ancestors up to and including the first one that has permissions carry content, author and
+     * permissions (the "permission boundary"); ancestors beyond it are minimal (id and title) but
+     * parent references are ALWAYS set for navigation purposes.
+     */
+    private Entry loadParentChainWithPermissions(int parentId) {
+        List<Entry> chain = new ArrayList<>();
+        boolean beyondBoundary = false;
+        Integer currentId = parentId;
+        while (currentId != null && chain.size() <= MAX_ANCESTOR_DEPTH) {
+            StoredEntry stored = db.entries.get(currentId);
+            if (stored == null) {
+                break;
+            }
+            if (beyondBoundary) {
+                chain.add(buildEntryMinimal(stored));
+            } else {
+                Entry ancestor = buildEntryMinimal(stored);
+                ancestor.setContent(stored.content);
+                ancestor.setChannelId(stored.channelId);
+                ancestor.setAuthor(db.users.get(stored.authorId));
+                ancestor.setPermissionManager(loadPermissions(stored));
+                chain.add(ancestor);
+                beyondBoundary = hasPermissions(stored);
+            }
+            currentId = stored.parentId;
+        }
+
+        if (chain.isEmpty()) {
+            return null;
+        }
+        // Link bottom-up so each circular dependency check only sees an unlinked parent
+        for (int i = 0; i + 1 < chain.size(); i++) {
+            linkParent(chain.get(i), chain.get(i + 1));
+        }
+        return chain.get(0);
+    }
+
+    /**
+     * Builds a clean permission manager from the stored rows, skipping users that no longer exist
+     */
+    private EntryPermissionManager loadPermissions(StoredEntry stored) {
+        List<UserPermission> permissions = new ArrayList<>();
+        if (stored != null) {
+            synchronized (stored.permissions) {
+                for (Map.Entry<String, EPermission> row : stored.permissions.entrySet()) {
+                    User user = db.findUser(row.getKey());
+                    if (user != null) {
+                        permissions.add(new UserPermission(user, row.getValue()));
+                    }
+                }
+            }
+        }
+        EntryPermissionManager manager = new EntryPermissionManager();
+        manager.setUserPermissions(permissions);
+        manager.markClean();
+        return manager;
+    }
+
+    /**
+     * Applies the permissions changed since the entry was loaded or last saved
+     */
+    private void savePermissions(StoredEntry stored, EntryPermissionManager manager) {
+        if (manager == null || !manager.isDirty()) return;
+
+        synchronized (stored.permissions) {
+            for (UserPermission userPerm : manager.getChangedPermissions()) {
+                // Null and NONE are both the "explicitly denied" row
+                EPermission perm = userPerm.getPermission();
+                stored.permissions.put(userPerm.getUser().getUsername(), perm != null ? perm : EPermission.NONE);
+            }
+            for (String username : manager.getRemovedUsernames()) {
+                stored.permissions.remove(username);
+            }
+        }
+        manager.markClean();
+    }
+
+    private static boolean hasPermissions(StoredEntry stored) {
+        synchronized (stored.permissions) {
+            return !stored.permissions.isEmpty();
+        }
+    }
+
+    /**
+     * Sets the parent of a stored entry and keeps the children index in step
+     */
+    private void moveEntry(StoredEntry stored, Integer parentId) {
+        synchronized (db) {
+            Integer previous = stored.parentId;
+            if (previous == null ? parentId == null : previous.equals(parentId)) {
+                return;
+            }
+            if (previous != null) {
+                childrenOf(previous).remove(stored.id);
+            }
+            if (parentId != null) {
+                db.childrenByParent.computeIfAbsent(parentId, key -> InMemoryDatabase.newIdSet()).add(stored.id);
+            }
+            stored.parentId = parentId;
+        }
+    }
+
+    private Set<Integer> childrenOf(int parentId) {
+        Set<Integer> children = db.childrenByParent.get(parentId);
+        return children != null ? children : Collections.emptySet();
+    }
+
+    private static Integer parentIdOf(Entry entry) {
+        return entry.getParentEntry() != null ? entry.getParentEntry().getId() : null;
+    }
+
+    private static void linkParent(Entry entry, Entry parent) {
+        try {
+            entry.setParentEntry(parent);
+        } catch (Entry.CircularDependencyException e) {
+            // This shouldn't happen when loading from storage
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Builds a metadata-only Entry, like the MySQL root summary projection
+     */
+    private Entry buildEntrySummary(StoredEntry stored) {
+        Entry entry = buildEntryMinimal(stored);
+        entry.setChannelId(stored.channelId);
+        entry.setAuthor(db.users.get(stored.authorId));
+        entry.setMetadata(metadataOf(stored));
+        return entry;
+    }
+
+    /**
+     * Builds a minimal Entry (id and title only)
+     */
+    private static Entry buildEntryMinimal(StoredEntry stored) {
+        Entry entry = new Entry();
+        entry.setId(stored.id);
+        entry.setTitle(stored.title);
+        return entry;
+    }
+
+    private static MetaData metadataOf(StoredEntry stored) {
+        MetaData metadata = new MetaData();
+        metadata.setCreationDate(stored.creationDate);
+        metadata.setLastModified(stored.lastModified);
+        return metadata;
+    }
+}
@@ -0,0 +1,256 @@
+package fr.opal.dao;
+
+import fr.opal.dao.InMemoryDatabase.Friendship;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.RelationshipStatus;
+import fr.opal.type.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory implementation of FriendsDAO
+ */
+public class InMemoryFriendsDAO extends FriendsDAO {
+    private final InMemoryDatabase db;
+
+    public InMemoryFriendsDAO(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public ArrayList<User> getFriendList(int userId) {
+        ArrayList<User> friends = new ArrayList<>();
+        for (Integer partnerId : idsOf(db.friendshipPartners, userId)) {
+            Friendship friendship = findFriendship(userId, partnerId);
+            if (friendship != null && friendship.isAccepted()) {
+                addUser(friends, partnerId);
+            }
+        }
+        return friends;
+    }
+
+    @Override
+    public ArrayList<User> getFollowedUsers(int userId) {
+        return usersOf(idsOf(db.following, userId));
+    }
+
+    @Override
+    public ArrayList<User> getFollowersList(int userId) {
+        return usersOf(idsOf(db.followers, userId));
+    }
+
+    @Override
+    public ArrayList<User> getBlockedUsers(int userId) {
+        return usersOf(idsOf(db.blocking, userId));
+    }
+
+    @Override
+    public ArrayList<User> getPendingFriendRequests(int userId) {
+        ArrayList<User> requests = new ArrayList<>();
+        for (Integer partnerId : idsOf(db.friendshipPartners, userId)) {
+            Friendship friendship = db.friendships.get(InMemoryDatabase.pairKey(partnerId, userId));
+            if (friendship != null && friendship.isPending()) {
+                addUser(requests, partnerId);
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public void addFriend(int fromUserId, int toUserId) {
+        synchronized (db) {
+            requireDistinctUsers(fromUserId, toUserId, "Error adding friend request from " + fromUserId + " to " + toUserId);
+            long key = InMemoryDatabase.pairKey(fromUserId, toUserId);
+            if (db.friendships.putIfAbsent(key, new Friendship(fromUserId, toUserId)) != null) {
+                throw new DataAccessException("Error adding friend request from " + fromUserId + " to " + toUserId
+                        + " (duplicate friendship)");
+            }
+            db.friendshipPartners.computeIfAbsent(fromUserId, id -> InMemoryDatabase.newIdSet()).add(toUserId);
+            db.friendshipPartners.computeIfAbsent(toUserId, id -> InMemoryDatabase.newIdSet()).add(fromUserId);
+        }
+    }
+
+    @Override
+    public void removeFriend(int userId, int friendId) {
+        synchronized (db) {
+            // A pair may hold a row in each direction; each accepted one counts
+            for (long key : new long[]{InMemoryDatabase.pairKey(userId, friendId), InMemoryDatabase.pairKey(friendId, userId)}) {
+                Friendship friendship = db.friendships.remove(key);
+                if (friendship != null && friendship.isAccepted()) {
+                    adjustCount(db.friendCounts, userId, -1);
+                    adjustCount(db.friendCounts, friendId, -1);
+                }
+            }
+            idsOf(db.friendshipPartners, userId).remove(friendId);
+            idsOf(db.friendshipPartners, friendId).remove(userId);
+        }
+    }
+
+    @Override
+    public void follow(int followerId, int followedId) {
+        synchronized (db) {
+            requireDistinctUsers(followerId, followedId, "Error following user " + followedId + " by " + followerId);
+            if (!db.following.computeIfAbsent(followerId, id -> InMemoryDatabase.newIdSet()).add(followedId)) {
+                throw new DataAccessException("Error following user " + followedId + " by " + followerId
+                        + " (already following)");
+            }
+            db.followers.computeIfAbsent(followedId, id -> InMemoryDatabase.newIdSet()).add(followerId);
+            adjustCount(db.followerCounts, followedId, 1);
+        }
+    }
+
+    @Override
+    public void unfollow(int followerId, int followedId) {
+        synchronized (db) {
+            if (idsOf(db.following, followerId).remove(followedId)) {
+                adjustCount(db.followerCounts, followedId, -1);
+            }
+            idsOf(db.followers, followedId).remove(followerId);
+        }
+    }
+
+    @Override
+    public void block(int userId, int blockedUserId) {
+        // Block and cleanup are applied together, like the MySQL transaction
+        synchronized (db) {
+            requireDistinctUsers(userId, blockedUserId, "Error blocking user " + blockedUserId + " by " + userId);
+            if (!db.blocking.computeIfAbsent(userId, id -> InMemoryDatabase.newIdSet()).add(blockedUserId)) {
+                throw new DataAccessException("Error blocking user " + blockedUserId + " by " + userId
+                        + " (already blocked)");
+            }
+            removeFriend(userId, blockedUserId);
+            unfollow(userId, blockedUserId);
+            unfollow(blockedUserId, userId);
+        }
+    }
+
+    @Override
+    public void unblock(int userId, int blockedUserId) {
+        idsOf(db.blocking, userId).remove(blockedUserId);
+    }
+
+    @Override
+    public int getFriendCount(int userId) {
+        return db.friendCounts.getOrDefault(userId, 0);
+    }
+
+    @Override
+    public int getFollowerCount(int userId) {
+        return db.followerCounts.getOrDefault(userId, 0);
+    }
+
+    @Override
+    public boolean isBlocked(int userId, int otherUserId) {
+        // Same direction as the MySQL query: whether otherUserId blocked userId
+        return idsOf(db.blocking, otherUserId).contains(userId);
+    }
+
+    @Override
+    public boolean isFriend(int userId, int otherUserId) {
+        Friendship friendship = findFriendship(userId, otherUserId);
+        return friendship != null && friendship.isAccepted();
+    }
+
+    @Override
+    public boolean isFollowing(int followerId, int followedId) {
+        return idsOf(db.following, followerId).contains(followedId);
+    }
+
+    @Override
+    public boolean hasPendingFriendRequest(int fromUserId, int toUserId) {
+        Friendship friendship = db.friendships.get(InMemoryDatabase.pairKey(fromUserId, toUserId));
+        return friendship != null && friendship.isPending();
+    }
+
+    @Override
+    public Map<Integer, RelationshipStatus> getRelationshipStatuses(int viewerId, List<Integer> userIds) {
+        Map<Integer, RelationshipStatus> statuses = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            if (!db.users.containsKey(userId)) {
+                continue;
+            }
+            statuses.put(userId, new RelationshipStatus(
+                    userId,
+                    getFriendCount(userId),
+                    getFollowerCount(userId),
+                    isBlocked(viewerId, userId),
+                    isFriend(viewerId, userId),
+                    isFollowing(viewerId, userId),
+                    hasPendingFriendRequest(viewerId, userId)));
+        }
+        return statuses;
+    }
+
+    @Override
+    public void acceptFriendRequest(int requesterId, int userId) {
+        // Channel creation and acceptance are applied together, so no channel is left without a friendship
+        synchronized (db) {
+            Friendship friendship = db.friendships.get(InMemoryDatabase.pairKey(requesterId, userId));
+            if (friendship == null || !friendship.isPending()) {
+                return;
+            }
+            friendship.channelId = db.createChannel();
+            friendship.status = "ACCEPTED";
+            adjustCount(db.friendCounts, requesterId, 1);
+            adjustCount(db.friendCounts, userId, 1);
+        }
+    }
+
+    @Override
+    public int getChannelIdForFriendship(int user1Id, int user2Id) {
+        Friendship friendship = findFriendship(user1Id, user2Id);
+        if (friendship != null && friendship.isAccepted()) {
+            return friendship.channelId;
+        }
+        return 0; // Channel doesn't exist or friendship not accepted
+    }
+
+    /**
+     * Finds the friendship row between two users, in either direction
+     */
+    private Friendship findFriendship(int userId, int otherUserId) {
+        Friendship friendship = db.friendships.get(InMemoryDatabase.pairKey(userId, otherUserId));
+        return friendship != null ? friendship : db.friendships.get(InMemoryDatabase.pairKey(otherUserId, userId));
+    }
+
+    private ArrayList<User> usersOf(Set<Integer> ids) {
+        ArrayList<User> users = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            addUser(users, id);
+        }
+        return users;
+    }
+
+    private void addUser(ArrayList<User> users, Integer id) {
+        User user = db.users.get(id);
+        if (user != null) {
+            users.add(user);
+        }
+    }
+
+    /**
+     * Moves a counter, dropping it once back to zero; callers hold the database lock
+     */
+    private static void adjustCount(Map<Integer, Integer> counts, int userId, int delta) {
+        counts.merge(userId, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    private static Set<Integer> idsOf(Map<Integer, Set<Integer>> index, int userId) {
+        Set<Integer> ids = index.get(userId);
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Mirrors the CHECK constraints forbidding a relationship with oneself
+     */
+    private static void requireDistinctUsers(int userId, int otherUserId, String message) {
+        if (userId == otherUserId) {
+            throw new DataAccessException(message + " (same user)");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fr.opal.dao;
+
+import fr.opal.type.SessionSettings;
+import fr.opal.type.StyleColor;
+import fr.opal.type.StylePalette;
+
+/**
+ * In-memory implementation of SessionDAO
+ */
+public class InMemorySessionDAO extends SessionDAO {
+    private final InMemoryDatabase db;
+
+    public InMemorySessionDAO(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public SessionSettings getSessionSettings(int userId) {
+        return copy(settingsFor(userId));
+    }
+
+    @Override
+    public void saveFontSize(int userId, int fontSize) {
+        SessionSettings settings = settingsFor(userId);
+        synchronized (settings) {
+            settings.setFontSize(fontSize);
+        }
+    }
+
+    @Override
+    public int getFontSize(int userId) {
+        SessionSettings settings = db.sessionSettings.get(userId);
+        return settings != null ? settings.getFontSize() : 14;
+    }
+
+    @Override
+    public void saveStylePalette(int userId, StylePalette stylePalette) {
+        SessionSettings settings = settingsFor(userId);
+        synchronized (settings) {
+            settings.setStylePalette(stylePalette);
+        }
+    }
+
+    @Override
+    public StylePalette getStylePalette(int userId) {
+        SessionSettings settings = db.sessionSettings.get(userId);
+        return settings != null ? settings.getStylePalette() : StylePalette.LIGHT;
+    }
+
+    @Override
+    public void saveAccentColor(int userId, StyleColor accentColor) {
+        SessionSettings settings = settingsFor(userId);
+        synchronized (settings) {
+            settings.setAccentColor(accentColor);
+        }
+    }
+
+    @Override
+    public StyleColor getAccentColor(int userId) {
+        SessionSettings settings = db.sessionSettings.get(userId);
+        return settings != null ? settings.getAccentColor() : StyleColor.BLUE;
+    }
+
+    @Override
+    public void saveSessionSettings(int userId, SessionSettings settings) {
+        db.sessionSettings.put(userId, copy(settings));
+    }
+
+    /**
+     * Gets the stored settings row, creating the default one if necessary
+     */
+    private SessionSettings settingsFor(int userId) {
+        return db.sessionSettings.computeIfAbsent(userId, id -> new SessionSettings());
+    }
+
+    private static SessionSettings copy(SessionSettings settings) {
+        synchronized (settings) {
+            return new SessionSettings(settings.getFontSize(), settings.getStylePalette(), settings.getAccentColor());
+        }
+    }
+}
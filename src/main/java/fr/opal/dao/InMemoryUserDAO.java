@@ -0,0 +1,115 @@
+package fr.opal.dao;
+
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory implementation of UserDAO
+ */
+public class InMemoryUserDAO extends UserDAO {
+    private final InMemoryDatabase db;
+
+    public InMemoryUserDAO(InMemoryDatabase db) {
+        this.db = db;
+    }
+
+    @Override
+    public User getUserById(String username) {
+        return db.findUser(username);
+    }
+
+    @Override
+    public User getUserByDatabaseId(int id) {
+        return db.users.get(id);
+    }
+
+    @Override
+    public List<User> getUsersAfter(int afterId, int limit) {
+        List<User> users = new ArrayList<>(Math.min(limit, db.users.size()));
+        for (User user : db.users.tailMap(afterId, false).values()) {
+            if (users.size() == limit) {
+                break;
+            }
+            users.add(new User(user.getId(), user.getUsername(), ""));
+        }
+        return users;
+    }
+
+    @Override
+    public User createUser(String username, String password) {
+        synchronized (db) {
+            if (db.userIdsByUsername.containsKey(username)) {
+                throw new DataAccessException("Error creating user: " + username + " (username already taken)");
+            }
+            User user = new User(db.nextUserId(), username, password);
+            db.users.put(user.getId(), user);
+            db.userIdsByUsername.put(username, user.getId());
+            return user;
+        }
+    }
+
+    @Override
+    public Profile getProfile(int userId) {
+        Profile stored = db.profiles.get(userId);
+        return stored != null ? copy(stored) : null;
+    }
+
+    @Override
+    public void updateProfile(int userId, Profile profile) {
+        db.profiles.put(userId, new Profile(userId, profile.getDisplayName(), profile.getBio(), profile.getContactInfo()));
+    }
+
+    @Override
+    public List<Permission> listPermissions(int userId) {
+        List<Permission> permissions = new ArrayList<>();
+        Map<Integer, Permission> owned = db.permissionsByUser.get(userId);
+        if (owned != null) {
+            for (Permission permission : owned.values()) {
+                permissions.add(new Permission(permission.getId(), permission.getName()));
+            }
+        }
+        return permissions;
+    }
+
+    @Override
+    public Permission createPermission(int userId, String permissionName) {
+        synchronized (db) {
+            Permission permission = new Permission(db.nextPermissionId(), permissionName);
+            db.permissionsByUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>())
+                    .put(permission.getId(), permission);
+            db.permissionOwners.put(permission.getId(), userId);
+            return new Permission(permission.getId(), permissionName);
+        }
+    }
+
+    @Override
+    public void updatePermission(int permissionId, String permissionName) {
+        synchronized (db) {
+            Integer owner = db.permissionOwners.get(permissionId);
+            if (owner != null) {
+                db.permissionsByUser.get(owner).put(permissionId, new Permission(permissionId, permissionName));
+            }
+        }
+    }
+
+    @Override
+    public void deletePermission(int permissionId) {
+        synchronized (db) {
+            Integer owner = db.permissionOwners.remove(permissionId);
+            if (owner != null) {
+                db.permissionsByUser.get(owner).remove(permissionId);
+            }
+        }
+    }
+
+    private static Profile copy(Profile profile) {
+        return new Profile(profile.getUserId(), profile.getDisplayName(), profile.getBio(), profile.getContactInfo());
+    }
+}
@@ -0,0 +1,410 @@
+package fr.opal.dao;
+
+import fr.opal.db.ConnectionPool;
+import fr.opal.db.UnitOfWork;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Channel;
+import fr.opal.type.Message;
+import fr.opal.type.User;
+
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ChannelDAO over a JDBC data source, shared by the MySQL (and embedded H2) and PostgreSQL DAOs.
+ * Part of the unified channel architecture where channels are generic
+ * containers and context is derived from the owning entity (Entry or Friendship).
+ * Subclasses only provide the statements whose SQL differs between dialects:
+ * key generation, keyset conditions, streaming setup and single-message writes.
+ */
+public abstract class JdbcChannelDAO extends ChannelDAO {
+    /**
+     * Message columns joined with their sender, so a page of messages costs a single query
+     */
+    private static final String MESSAGE_WITH_SENDER_SELECT =
+        "SELECT m.id, m.channel_id, m.sender_id, m.content, m.created_at, u.username, u.password " +
+        "FROM messages m LEFT JOIN users u ON u.id = m.sender_id ";
+
+    protected final DataSource dataSource;
+
+    protected JdbcChannelDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // ==================== Dialect statements ====================
+
+    /**
+     * Keyset condition selecting the messages m older than the cursor, ordered on (created_at, id)
+     * Its parameters are bound by bindKeyset
+     */
+    protected abstract String keysetBefore();
+
+    /**
+     * Keyset condition selecting the messages m newer than the cursor, ordered on (created_at, id)
+     * Its parameters are bound by bindKeyset
+     */
+    protected abstract String keysetAfter();
+
+    /**
+     * Binds the cursor to the parameters of a keyset condition
+     * @return the index of the next parameter
+     */
+    protected abstract int bindKeyset(PreparedStatement ps, int index, Timestamp createdAt, long id) throws SQLException;
+
+    /**
+     * Makes the driver fetch the rows of a streamed query incrementally instead of buffering them all
+     */
+    protected abstract void configureStreaming(Connection conn, PreparedStatement ps) throws SQLException;
+
+    // ==================== Channel Operations ====================
+
+    @Override
+    public int[] createChannels(int count) {
+        try {
+            return UnitOfWork.call(dataSource, conn -> insertChannels(conn, count));
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating " + count + " channels", e);
+        }
+    }
+
+    /**
+     * Inserts channels as one batch in the caller's transaction, for the entries and friendships
+     * created in batches with them. The same statement and generated keys work in every dialect.
+     * @return the generated channel IDs, in insertion order
+     */
+    static int[] insertChannels(Connection conn, int count) throws SQLException {
+        int[] ids = new int[count];
+        if (count == 0) {
+            return ids;
+        }
+        String sql = "INSERT INTO channels (created_at) VALUES (CURRENT_TIMESTAMP)";
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < count; i++) {
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            readGeneratedIds(ps, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Reads the keys generated by a batch insert, which come back in insertion order
+     */
+    static void readGeneratedIds(PreparedStatement ps, int[] ids) throws SQLException {
+        int read = 0;
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            while (read < ids.length && rs.next()) {
+                ids[read++] = rs.getInt(1);
+            }
+        }
+        if (read < ids.length) {
+            throw new SQLException("Expected " + ids.length + " generated keys, got " + read);
+        }
+    }
+
+    @Override
+    public Channel getChannelById(int id) {
+        String sql = "SELECT id, created_at FROM channels WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Channel(rs.getInt("id"), rs.getTimestamp("created_at"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting channel: " + id, e);
+        }
+        return null;
+    }
+
+    @Override
+    public void deleteChannel(int id) {
+        String sql = "DELETE FROM channels WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting channel: " + id, e);
+        }
+    }
+
+    // ==================== Message Operations ====================
+
+    @Override
+    public List<Message> getMessagesForChannel(int channelId) {
+        String sql = MESSAGE_WITH_SENDER_SELECT +
+                     "WHERE m.channel_id = ? ORDER BY m.created_at ASC, m.id ASC";
+        List<Message> messages = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, channelId);
+            try (ResultSet rs = ps.executeQuery()) {
+                Map<Integer, User> senders = new HashMap<>();
+                while (rs.next()) {
+                    messages.add(buildMessageFromResultSet(rs, senders));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting messages for channel: " + channelId, e);
+        }
+        return messages;
+    }
+
+    @Override
+    public Stream<Message> streamMessagesForChannel(int channelId) {
+        String sql = MESSAGE_WITH_SENDER_SELECT +
+                     "WHERE m.channel_id = ? ORDER BY m.created_at ASC, m.id ASC";
+        ConnectionPool pool = null;
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            if (dataSource.isWrapperFor(ConnectionPool.class)) {
+                pool = dataSource.unwrap(ConnectionPool.class);
+            }
+            conn = openStreamingConnection(pool);
+            ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            configureStreaming(conn, ps);
+            ps.setInt(1, channelId);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, ps, conn);
+            throw new DataAccessException("Error streaming messages for channel: " + channelId, e);
+        }
+
+        ConnectionPool streamingPool = pool;
+        PreparedStatement statement = ps;
+        Connection connection = conn;
+        ResultSet cursor = rs;
+        Map<Integer, User> senders = new HashMap<>();
+        Spliterator<Message> rows = new Spliterators.AbstractSpliterator<Message>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Message> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    // A stream still being read is not a leak, however long it takes
+                    if (streamingPool != null) {
+                        streamingPool.markActive(connection);
+                    }
+                    action.accept(buildMessageFromResultSet(cursor, senders));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException("Error streaming messages for channel: " + channelId, e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(cursor, statement, connection));
+    }
+
+    /**
+     * A streaming result set blocks its connection until fully read or closed.
+     * Use a connection of its own so the caller can keep querying while consuming the stream.
+     * @param pool the pool behind the data source, or null if it is not pooled
+     */
+    private Connection openStreamingConnection(ConnectionPool pool) throws SQLException {
+        if (pool != null) {
+            return pool.getUnsharedConnection();
+        }
+        return dataSource.getConnection();
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception ignored) {
+                // Nothing more to release
+            }
+        }
+    }
+
+    @Override
+    public List<Message> getRecentMessages(int channelId, int limit) {
+        return getMessagesBefore(channelId, null, 0, limit);
+    }
+
+    @Override
+    public List<Message> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit) {
+        // Newest first so LIMIT keeps the page closest to the cursor, reversed afterwards for display
+        String sql = beforeCreatedAt != null
+            ? MESSAGE_WITH_SENDER_SELECT +
+              "WHERE m.channel_id = ? AND " + keysetBefore() +
+              " ORDER BY m.created_at DESC, m.id DESC LIMIT ?"
+            : MESSAGE_WITH_SENDER_SELECT +
+              "WHERE m.channel_id = ? ORDER BY m.created_at DESC, m.id DESC LIMIT ?";
+        List<Message> messages = getMessagePage(sql, channelId, beforeCreatedAt, beforeMessageId, limit);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    @Override
+    public List<Message> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit) {
+        String sql = afterCreatedAt != null
+            ? MESSAGE_WITH_SENDER_SELECT +
+              "WHERE m.channel_id = ? AND " + keysetAfter() +
+              " ORDER BY m.created_at ASC, m.id ASC LIMIT ?"
+            : MESSAGE_WITH_SENDER_SELECT +
+              "WHERE m.channel_id = ? ORDER BY m.created_at ASC, m.id ASC LIMIT ?";
+        return getMessagePage(sql, channelId, afterCreatedAt, afterMessageId, limit);
+    }
+
+    /**
+     * Runs a keyset page query. The cursor is only bound when the query has one.
+     */
+    private List<Message> getMessagePage(String sql, int channelId, Date cursorCreatedAt, long cursorMessageId, int limit) {
+        List<Message> messages = new ArrayList<>(limit);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            ps.setInt(index++, channelId);
+            if (cursorCreatedAt != null) {
+                index = bindKeyset(ps, index, toTimestamp(cursorCreatedAt), cursorMessageId);
+            }
+            ps.setInt(index, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                Map<Integer, User> senders = new HashMap<>();
+                while (rs.next()) {
+                    messages.add(buildMessageFromResultSet(rs, senders));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting messages for channel: " + channelId, e);
+        }
+        return messages;
+    }
+
+    /**
+     * Dates of messages read from the database already are timestamps, keeping their sub-millisecond part
+     */
+    private static Timestamp toTimestamp(Date date) {
+        return date instanceof Timestamp timestamp ? timestamp : new Timestamp(date.getTime());
+    }
+
+    @Override
+    public void saveMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO messages(channel_id, sender_id, content) VALUES (?, ?, ?)";
+        try {
+            UnitOfWork.run(dataSource, conn -> {
+                // Channel rows are locked by the counter update before the inserts share-lock them
+                adjustMessageCounts(conn, countByChannel(messages));
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Message message : messages) {
+                        ps.setInt(1, message.getChannelId());
+                        ps.setInt(2, message.getSender().getId());
+                        ps.setString(3, message.getContent());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    // Keys come back in insertion order
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < messages.size() && rs.next(); i++) {
+                            messages.get(i).setId(rs.getLong(1));
+                        }
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving " + messages.size() + " messages", e);
+        }
+    }
+
+    @Override
+    public void updateMessageContent(long messageId, String newContent) {
+        String sql = "UPDATE messages SET content = ? WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, newContent);
+            ps.setLong(2, messageId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating message: " + messageId, e);
+        }
+    }
+
+    @Override
+    public int getMessageCount(int channelId) {
+        String sql = "SELECT message_count FROM channels WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, channelId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting message count for channel: " + channelId, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Moves the message_count of each channel by its delta, in the caller's transaction.
+     * Channels are updated in ID order so concurrent batches lock them in the same order.
+     */
+    protected static void adjustMessageCounts(Connection conn, Map<Integer, Integer> deltas) throws SQLException {
+        String sql = "UPDATE channels SET message_count = message_count + ? WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+                ps.setInt(1, delta.getValue());
+                ps.setInt(2, delta.getKey());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Helper method to build Message from a row of MESSAGE_WITH_SENDER_SELECT.
+     * Senders are resolved by the JOIN and shared across rows through the given map.
+     */
+    private static Message buildMessageFromResultSet(ResultSet rs, Map<Integer, User> senders) throws SQLException {
+        int senderId = rs.getInt("sender_id");
+        User sender = senders.get(senderId);
+
+        if (sender == null) {
+            String username = rs.getString("username");
+            if (username != null) {
+                sender = new User(senderId, username, rs.getString("password"));
+            } else {
+                // Handle orphaned messages (sender deleted) - create placeholder user
+                sender = new User(senderId, "[deleted]", "");
+            }
+            senders.put(senderId, sender);
+        }
+
+        return new Message(
+            rs.getLong("id"),
+            rs.getInt("channel_id"),
+            sender,
+            rs.getString("content"),
+            rs.getTimestamp("created_at")
+        );
+    }
+}
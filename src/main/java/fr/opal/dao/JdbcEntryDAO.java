@@ -0,0 +1,672 @@
+package fr.opal.dao;
+
+import fr.opal.db.UnitOfWork;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.*;
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * EntryDAO over a JDBC data source, shared by the MySQL (and embedded H2) and PostgreSQL DAOs.
+ * Uses unified channel architecture for comments (messages).
+ * Subclasses only provide the statements whose SQL differs between dialects:
+ * entry insertion, the root title match and batched permission reads and writes.
+ */
+public abstract class JdbcEntryDAO extends EntryDAO {
+    private static final Logger LOGGER = Logger.getLogger(JdbcEntryDAO.class.getName());
+
+    /**
+     * Guard against corrupted parent_id cycles in the recursive ancestor query
+     */
+    private static final int MAX_ANCESTOR_DEPTH = 256;
+
+    /**
+     * Root listing columns: everything except content, with the author joined in
+     */
+    private static final String ROOT_SUMMARY_SELECT =
+        "SELECT e.id, e.title, e.author_id, e.channel_id, e.creation_date, e.last_modified, " +
+        "       u.username AS author_username, u.password AS author_password " +
+        "FROM entries e LEFT JOIN users u ON u.id = e.author_id ";
+
+    /**
+     * Permission rows joined with their users, completed by the dialect's entry_id condition
+     */
+    protected static final String PERMISSIONS_SELECT =
+        "SELECT ep.entry_id, ep.username AS perm_username, ep.permission AS perm_value, " +
+        "       u.id AS perm_user_id, u.password AS perm_user_password " +
+        "FROM entry_permissions ep INNER JOIN users u ON u.username = ep.username " +
+        "WHERE ep.entry_id ";
+
+    protected final DataSource dataSource;
+    protected final UserDAO userDAO;
+    protected final ChannelDAO channelDAO;
+
+    /**
+     * Constructor with pooled data source (must be managed by factory) and the DAOs of the same dialect
+     */
+    protected JdbcEntryDAO(DataSource dataSource, UserDAO userDAO, ChannelDAO channelDAO) {
+        this.dataSource = dataSource;
+        this.userDAO = userDAO;
+        this.channelDAO = channelDAO;
+    }
+
+    // ==================== Dialect statements ====================
+
+    /**
+     * Inserts the entry with a new channel for its comments, in the caller's transaction
+     * @return the generated {entry ID, channel ID}, set on the entry by the caller once committed
+     */
+    protected abstract int[] insertEntry(Connection conn, Entry entry) throws SQLException;
+
+    /**
+     * Condition on e.title matching the single bound title, ignoring case
+     */
+    protected abstract String rootTitleCondition();
+
+    /**
+     * Reads the permission rows of the given entries into their lists, with readPermissions
+     */
+    protected abstract void queryPermissions(List<Integer> entryIds, Map<Integer, List<UserPermission>> grouped)
+            throws SQLException;
+
+    /**
+     * Insert of an (entry_id, username, permission) row replacing the permission if the row exists
+     */
+    protected abstract String upsertPermissionSql();
+
+    /**
+     * Deletes the permission rows of the given usernames on an entry
+     */
+    protected abstract void deletePermissions(Connection conn, int entryId, Set<String> usernames)
+            throws SQLException;
+
+    // ==================== Entry operations ====================
+
+    /**
+     * Retrieves an entry by its ID with ALL data (eager load)
+     * Implements Depth-1 Radial strategy: current entry (full), parent (metadata+permissions), children (metadata+permissions)
+     */
+    @Override
+    public Entry getEntryById(int id) {
+        Entry entry = loadEntryBasicData(id);
+        if (entry != null) {
+            // Eagerly load messages from unified channel
+            if (entry.getChannelId() > 0) {
+                entry.setMessages(channelDAO.getMessagesForChannel(entry.getChannelId()));
+            }
+            // Parent entry and its permissions (Depth-1 Upward) are already loaded with the ancestor chain
+
+            // Lazy load child entries (Depth-1 Downward), then permissions for the entry and all children at once
+            List<Entry> children = getChildEntries(id);
+            List<Integer> permissionIds = new ArrayList<>(children.size() + 1);
+            permissionIds.add(id);
+            for (Entry child : children) {
+                permissionIds.add(child.getId());
+            }
+            Map<Integer, EntryPermissionManager> permissions = loadPermissions(permissionIds);
+            entry.setPermissionManager(permissions.get(id));
+
+            for (Entry child : children) {
+                child.setPermissionManager(permissions.get(child.getId()));
+                // IMPORTANT: Set parent reference for permission cascading
+                linkParent(child, entry);
+            }
+            entry.setChildEntries((ArrayList<Entry>) children);
+        }
+        return entry;
+    }
+
+    /**
+     * Saves an entry to the database (updates existing)
+     * Entry and permission changes are written in one transaction, so a failure leaves neither applied.
+     * Note: Messages are managed separately via ChannelDAO
+     */
+    @Override
+    public void saveEntry(Entry entry) {
+        String sql = "UPDATE entries SET title = ?, content = ?, parent_id = ?, " +
+                     "last_modified = CURRENT_TIMESTAMP WHERE id = ?";
+        try {
+            UnitOfWork.run(dataSource, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, entry.getTitle());
+                    ps.setString(2, entry.getContent());
+
+                    if (entry.getParentEntry() != null) {
+                        ps.setInt(3, entry.getParentEntry().getId());
+                    } else {
+                        ps.setNull(3, Types.INTEGER);
+                    }
+
+                    ps.setInt(4, entry.getId());
+                    ps.executeUpdate();
+                }
+
+                // Update permissions
+                writePermissions(conn, entry.getId(), entry.getPermissionManager());
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving entry: " + entry.getId(), e);
+        }
+        markPermissionsClean(entry);
+    }
+
+    /**
+     * Creates a new entry in the database with its own channel for comments.
+     * Channel, entry and permissions are written in one transaction.
+     */
+    @Override
+    public int createEntry(Entry entry) {
+        // Ensure author exists and has valid ID
+        if (entry.getAuthor() == null || entry.getAuthor().getId() == 0) {
+            throw new DataAccessException("Entry author is missing or has invalid ID", null);
+        }
+
+        int[] generated;
+        try {
+            generated = UnitOfWork.call(dataSource, conn -> {
+                int[] ids = insertEntry(conn, entry);
+
+                // Save permissions if any
+                writePermissions(conn, ids[0], entry.getPermissionManager());
+                return ids;
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating entry: " + entry.getTitle(), e);
+        }
+
+        // Only a committed entry gets its IDs and clean permissions
+        entry.setId(generated[0]);
+        entry.setChannelId(generated[1]);
+        markPermissionsClean(entry);
+        return entry.getId();
+    }
+
+    @Override
+    public void createEntries(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        for (Entry entry : entries) {
+            if (entry.getAuthor() == null || entry.getAuthor().getId() == 0) {
+                throw new DataAccessException("Entry author is missing or has invalid ID", null);
+            }
+        }
+        String sql = "INSERT INTO entries(title, content, parent_id, author_id, channel_id) VALUES (?, ?, ?, ?, ?)";
+
+        int[] channelIds = new int[entries.size()];
+        int[] ids = new int[entries.size()];
+
+        // Channels, entries and permissions commit together, one batch each
+        try {
+            UnitOfWork.run(dataSource, conn -> {
+                System.arraycopy(JdbcChannelDAO.insertChannels(conn, entries.size()), 0, channelIds, 0, channelIds.length);
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int i = 0; i < entries.size(); i++) {
+                        bindEntryColumns(ps, entries.get(i));
+                        ps.setInt(5, channelIds[i]);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    JdbcChannelDAO.readGeneratedIds(ps, ids);
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(upsertPermissionSql())) {
+                    int rows = 0;
+                    for (int i = 0; i < entries.size(); i++) {
+                        rows += addPermissionRows(ps, ids[i], entries.get(i).getPermissionManager());
+                    }
+                    if (rows > 0) {
+                        ps.executeBatch();
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating " + entries.size() + " entries", e);
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setId(ids[i]);
+            entries.get(i).setChannelId(channelIds[i]);
+            markPermissionsClean(entries.get(i));
+        }
+    }
+
+    /**
+     * Binds title, content, parent and author as parameters 1 to 4 of an entry insert
+     */
+    protected static void bindEntryColumns(PreparedStatement ps, Entry entry) throws SQLException {
+        ps.setString(1, entry.getTitle());
+        ps.setString(2, entry.getContent());
+
+        if (entry.getParentEntry() != null) {
+            ps.setInt(3, entry.getParentEntry().getId());
+        } else {
+            ps.setNull(3, Types.INTEGER);
+        }
+
+        ps.setInt(4, entry.getAuthor().getId());
+    }
+
+    /**
+     * Deletes an entry from the database
+     */
+    @Override
+    public void deleteEntry(int id) {
+        String sql = "DELETE FROM entries WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting entry: " + id, e);
+        }
+    }
+
+    /**
+     * Retrieves all root entries (entries without parents)
+     * Metadata-only projection: content is never transferred and authors come from the same query
+     */
+    @Override
+    public List<Entry> getRootEntries() {
+        List<Entry> entries = new ArrayList<>();
+        String sql = ROOT_SUMMARY_SELECT + "WHERE e.parent_id IS NULL";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(buildEntrySummaryFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving root entries", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Finds a root entry by its exact title.
+     * The case-insensitive condition selects the candidates through an index on (parent_id, title),
+     * then the title is compared exactly, case and accents included.
+     */
+    @Override
+    public Entry findRootByTitle(String title) {
+        String sql = ROOT_SUMMARY_SELECT + "WHERE e.parent_id IS NULL AND " + rootTitleCondition() +
+                     " ORDER BY e.id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, title);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (title.equals(rs.getString("title"))) {
+                        return buildEntrySummaryFromResultSet(rs);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding root entry: " + title, e);
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to build a metadata-only Entry from a ROOT_SUMMARY_SELECT row
+     */
+    private Entry buildEntrySummaryFromResultSet(ResultSet rs) throws SQLException {
+        Entry entry = new Entry();
+        entry.setId(rs.getInt("id"));
+        entry.setTitle(rs.getString("title"));
+
+        int channelId = rs.getInt("channel_id");
+        if (!rs.wasNull()) {
+            entry.setChannelId(channelId);
+        }
+
+        String authorName = rs.getString("author_username");
+        if (authorName != null) {
+            entry.setAuthor(new User(rs.getInt("author_id"), authorName, rs.getString("author_password")));
+        }
+
+        MetaData metadata = new MetaData();
+        metadata.setCreationDate(rs.getTimestamp("creation_date"));
+        metadata.setLastModified(rs.getTimestamp("last_modified"));
+        entry.setMetadata(metadata);
+        return entry;
+    }
+
+    /**
+     * Retrieves all child entries of a given parent (lazy load - only title, id)
+     */
+    @Override
+    public List<Entry> getChildEntries(int parentId) {
+        List<Entry> entries = new ArrayList<>();
+        String sql = "SELECT id, title FROM entries WHERE parent_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, parentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // Only load title and id
+                    entries.add(buildEntryMinimalFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving child entries for parent: " + parentId, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Loads basic entry data from database
+     */
+    private Entry loadEntryBasicData(int id) {
+        String sql = "SELECT id, title, content, parent_id, author_id, channel_id, creation_date, last_modified " +
+                     "FROM entries WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return buildEntryFromResultSet(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error loading entry: " + id, e);
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to build full Entry object from ResultSet
+     */
+    private Entry buildEntryFromResultSet(ResultSet rs) throws SQLException {
+        Entry entry = new Entry();
+        entry.setId(rs.getInt("id"));
+        entry.setTitle(rs.getString("title"));
+        entry.setContent(rs.getString("content"));
+
+        // Load channel ID for unified messaging
+        int channelId = rs.getInt("channel_id");
+        if (!rs.wasNull()) {
+            entry.setChannelId(channelId);
+        }
+
+        // Load author using database ID (not username)
+        int authorId = rs.getInt("author_id");
+        User author = userDAO.getUserByDatabaseId(authorId);
+        entry.setAuthor(author);
+
+        // Load metadata
+        MetaData metadata = new MetaData();
+        metadata.setCreationDate(rs.getTimestamp("creation_date"));
+        metadata.setLastModified(rs.getTimestamp("last_modified"));
+        entry.setMetadata(metadata);
+
+        // Load parent entry if exists (recursively load full parent chain for permission cascading)
+        int parentId = rs.getInt("parent_id");
+        if (!rs.wasNull()) {
+            Entry parent = loadParentChainWithPermissions(parentId);
+            linkParent(entry, parent);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Sets the parent of a loaded entry. Rows read from the database cannot form a cycle
+     * the loaders have not already cut, so a cycle is only logged.
+     */
+    private static void linkParent(Entry child, Entry parent) {
+        try {
+            child.setParentEntry(parent);
+        } catch (Entry.CircularDependencyException e) {
+            LOGGER.warning("Circular parent reference ignored for entry " + child.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the whole ancestor path of an entry in a single recursive query.
+     * Ancestors up to and including the first one with permissions of an existing user are loaded with
+     * content, author and permissions; this implements the "permission boundary" - the first
+     * ancestor with permissions becomes the source of truth.
+     * Ancestors beyond the boundary are minimal (id and title) but parent references are
+     * ALWAYS set for navigation purposes.
+     * @param parentId ID of the closest ancestor
+     * @return the closest ancestor, linked to its own ancestors
+     */
+    private Entry loadParentChainWithPermissions(int parentId) {
+        String sql = "WITH RECURSIVE ancestors (id, parent_id, depth, beyond_boundary) AS (" +
+                     "  SELECT id, parent_id, 0, 0 FROM entries WHERE id = ?" +
+                     "  UNION ALL" +
+                     "  SELECT e.id, e.parent_id, a.depth + 1," +
+                     "         CASE WHEN a.beyond_boundary = 1 OR EXISTS " +
+                     "              (SELECT 1 FROM entry_permissions x INNER JOIN users u ON u.username = x.username" +
+                     "               WHERE x.entry_id = a.id) THEN 1 ELSE 0 END" +
+                     "  FROM entries e INNER JOIN ancestors a ON e.id = a.parent_id" +
+                     "  WHERE a.depth < " + MAX_ANCESTOR_DEPTH +
+                     ") " +
+                     "SELECT a.id, a.depth, a.beyond_boundary, e.title, e.channel_id, e.author_id, " +
+                     "       CASE WHEN a.beyond_boundary = 1 THEN NULL ELSE e.content END AS content, " +
+                     "       au.username AS author_username, au.password AS author_password, " +
+                     "       ep.username AS perm_username, ep.permission AS perm_value, " +
+                     "       pu.id AS perm_user_id, pu.password AS perm_user_password " +
+                     "FROM ancestors a " +
+                     "INNER JOIN entries e ON e.id = a.id " +
+                     "LEFT JOIN users au ON au.id = e.author_id AND a.beyond_boundary = 0 " +
+                     "LEFT JOIN entry_permissions ep ON ep.entry_id = a.id AND a.beyond_boundary = 0 " +
+                     "LEFT JOIN users pu ON pu.username = ep.username " +
+                     "ORDER BY a.depth";
+
+        // Closest ancestor first; one row per (ancestor, permission)
+        List<Entry> chain = new ArrayList<>();
+        List<List<UserPermission>> chainPermissions = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, parentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int depth = rs.getInt("depth");
+                    if (depth == chain.size()) {
+                        Entry ancestor = new Entry();
+                        ancestor.setId(rs.getInt("id"));
+                        ancestor.setTitle(rs.getString("title"));
+
+                        if (rs.getInt("beyond_boundary") == 0) {
+                            ancestor.setContent(rs.getString("content"));
+
+                            int channelId = rs.getInt("channel_id");
+                            if (!rs.wasNull()) {
+                                ancestor.setChannelId(channelId);
+                            }
+
+                            String authorName = rs.getString("author_username");
+                            if (authorName != null) {
+                                ancestor.setAuthor(new User(rs.getInt("author_id"), authorName,
+                                                            rs.getString("author_password")));
+                            }
+                        }
+                        chain.add(ancestor);
+                        chainPermissions.add(new ArrayList<>());
+                    }
+
+                    UserPermission permission = readPermission(rs);
+                    if (permission != null) {
+                        chainPermissions.get(depth).add(permission);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error loading parent chain: " + parentId, e);
+        }
+
+        if (chain.isEmpty()) {
+            return null;
+        }
+
+        // Link bottom-up so each circular dependency check only sees an unlinked parent
+        for (int i = 0; i < chain.size(); i++) {
+            Entry ancestor = chain.get(i);
+            ancestor.getPermissionManager().setUserPermissions(chainPermissions.get(i));
+            ancestor.getPermissionManager().markClean();
+            if (i + 1 < chain.size()) {
+                linkParent(ancestor, chain.get(i + 1));
+            }
+        }
+        return chain.get(0);
+    }
+
+    /**
+     * Builds a UserPermission from the perm_* columns of a joined permission row.
+     * Returns null when the row carries no permission or the user no longer exists.
+     */
+    private static UserPermission readPermission(ResultSet rs) throws SQLException {
+        String username = rs.getString("perm_username");
+        int userId = rs.getInt("perm_user_id");
+        if (username == null || rs.wasNull()) {
+            return null;
+        }
+        User user = new User(userId, username, rs.getString("perm_user_password"));
+        String permStr = rs.getString("perm_value");
+        // Use NONE for explicitly denied permissions (sparse inheritance)
+        EPermission permission = (permStr != null) ? EPermission.valueOf(permStr) : EPermission.NONE;
+        return new UserPermission(user, permission);
+    }
+
+    /**
+     * Adds the permissions of PERMISSIONS_SELECT rows to the list of their entry
+     */
+    protected static void readPermissions(ResultSet rs, Map<Integer, List<UserPermission>> grouped) throws SQLException {
+        while (rs.next()) {
+            UserPermission permission = readPermission(rs);
+            if (permission != null) {
+                grouped.get(rs.getInt("entry_id")).add(permission);
+            }
+        }
+    }
+
+    /**
+     * Helper method to build minimal Entry object from ResultSet (for lazy loading)
+     * Only loads: id, title
+     * Permissions are loaded separately in getEntryById()
+     */
+    private Entry buildEntryMinimalFromResultSet(ResultSet rs) throws SQLException {
+        Entry entry = new Entry();
+        entry.setId(rs.getInt("id"));
+        entry.setTitle(rs.getString("title"));
+        return entry;
+    }
+
+    /**
+     * Loads permissions for several entries at once, joined with their users,
+     * instead of one query per entry and per user.
+     * @return a manager for every requested id (empty when the entry has no permissions)
+     */
+    private Map<Integer, EntryPermissionManager> loadPermissions(List<Integer> entryIds) {
+        Map<Integer, List<UserPermission>> grouped = new HashMap<>();
+        for (int entryId : entryIds) {
+            grouped.put(entryId, new ArrayList<>());
+        }
+
+        try {
+            queryPermissions(entryIds, grouped);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error loading permissions for entries: " + entryIds, e);
+        }
+
+        Map<Integer, EntryPermissionManager> managers = new HashMap<>();
+        for (Map.Entry<Integer, List<UserPermission>> group : grouped.entrySet()) {
+            EntryPermissionManager manager = new EntryPermissionManager();
+            manager.setUserPermissions(group.getValue());
+            manager.markClean();
+            managers.put(group.getKey(), manager);
+        }
+        return managers;
+    }
+
+    /**
+     * Save permissions for an entry
+     * Only rows changed since the entry was loaded or last saved are written:
+     * one upsert batch, then the removed usernames, in the caller's transaction.
+     * The caller marks them clean once committed.
+     */
+    private void writePermissions(Connection conn, int entryId, EntryPermissionManager manager) throws SQLException {
+        if (manager == null || !manager.isDirty()) return;
+
+        // Usernames identify rows, see unique_entry_user
+        if (!manager.getChangedPermissions().isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(upsertPermissionSql())) {
+                addPermissionRows(ps, entryId, manager);
+                ps.executeBatch();
+            }
+        }
+
+        if (!manager.getRemovedUsernames().isEmpty()) {
+            deletePermissions(conn, entryId, manager.getRemovedUsernames());
+        }
+    }
+
+    /**
+     * Forgets the permission changes of an entry once they are committed
+     */
+    private static void markPermissionsClean(Entry entry) {
+        EntryPermissionManager manager = entry.getPermissionManager();
+        if (manager != null) {
+            manager.markClean();
+        }
+    }
+
+    /**
+     * Adds the changed permissions of an entry to an upsertPermissionSql batch
+     * @return the number of rows added
+     */
+    private static int addPermissionRows(PreparedStatement ps, int entryId, EntryPermissionManager manager)
+            throws SQLException {
+        List<UserPermission> changed = manager.getChangedPermissions();
+        for (UserPermission userPerm : changed) {
+            ps.setInt(1, entryId);
+            ps.setString(2, userPerm.getUser().getUsername());
+            // Store NONE as NULL in database for sparse inheritance
+            EPermission perm = userPerm.getPermission();
+            if (perm != null && perm != EPermission.NONE) {
+                ps.setString(3, perm.name());
+            } else {
+                ps.setNull(3, Types.VARCHAR);
+            }
+            ps.addBatch();
+        }
+        return changed.size();
+    }
+
+    /**
+     * Updates entry relationships in the database
+     */
+    @Override
+    public void updateEntryRelationships(Entry entry) {
+        String sql = "UPDATE entries SET parent_id = ? WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (entry.getParentEntry() != null) {
+                ps.setInt(1, entry.getParentEntry().getId());
+            } else {
+                ps.setNull(1, Types.INTEGER);
+            }
+            ps.setInt(2, entry.getId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating entry relationships: " + entry.getId(), e);
+        }
+    }
+
+    /**
+     * Loads all entry data including comments and metadata
+     */
+    @Override
+    public Entry loadEntryWithDetails(int id) {
+        return getEntryById(id);
+    }
+}
@@ -0,0 +1,394 @@
+package fr.opal.dao;
+
+import fr.opal.db.UnitOfWork;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.RelationshipStatus;
+import fr.opal.type.User;
+
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * FriendsDAO over a JDBC data source, shared by the MySQL (and embedded H2) and PostgreSQL DAOs.
+ * Reads are dialect-neutral and live here; subclasses provide the writes that move the friend
+ * and follower counters, and how a list of user IDs is bound for relationship statuses.
+ */
+public abstract class JdbcFriendsDAO extends FriendsDAO {
+
+    private static final String USER_COLUMNS = "SELECT u.id, u.username, u.password FROM users u ";
+
+    /**
+     * Maximum number of user IDs locked by one statement
+     */
+    private static final int LOCK_BATCH_SIZE = 500;
+
+    /**
+     * Counters and relationships of users to a viewer, completed by the dialect's u.id condition.
+     * Every relationship is a primary or unique key probe per row.
+     * The four viewer ID parameters come first, see prepareRelationshipStatuses.
+     */
+    protected static final String RELATIONSHIP_STATUS_SELECT =
+            "SELECT u.id, u.friend_count, u.follower_count, " +
+            "EXISTS (SELECT 1 FROM blocks b WHERE b.blocker_id = u.id AND b.blocked_id = ?) AS blocked, " +
+            "EXISTS (SELECT 1 FROM follows f WHERE f.follower_id = ? AND f.followed_id = u.id) AS following, " +
+            "(SELECT f.status FROM friendships f WHERE f.user_id1 = ? AND f.user_id2 = u.id) AS sent_status, " +
+            "(SELECT f.status FROM friendships f WHERE f.user_id1 = u.id AND f.user_id2 = ?) AS received_status " +
+            "FROM users u WHERE u.id ";
+
+    protected final DataSource dataSource;
+
+    protected JdbcFriendsDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Runs RELATIONSHIP_STATUS_SELECT for the given users and adds each status found, keyed by user ID
+     */
+    protected abstract void queryRelationshipStatuses(int viewerId, List<Integer> userIds,
+                                                      Map<Integer, RelationshipStatus> found) throws SQLException;
+
+    @Override
+    public ArrayList<User> getFriendList(int userId) {
+        String query = USER_COLUMNS +
+                      "INNER JOIN friendships f ON u.id = CASE WHEN f.user_id1 = ? THEN f.user_id2 ELSE f.user_id1 END " +
+                      "WHERE (f.user_id1 = ? OR f.user_id2 = ?) AND f.status = 'ACCEPTED'";
+        return queryUsers(query, "Error getting friend list for user: " + userId, userId, userId, userId);
+    }
+
+    @Override
+    public ArrayList<User> getFollowedUsers(int userId) {
+        String query = USER_COLUMNS + "INNER JOIN follows f ON u.id = f.followed_id WHERE f.follower_id = ?";
+        return queryUsers(query, "Error getting followed users for user: " + userId, userId);
+    }
+
+    @Override
+    public ArrayList<User> getFollowersList(int userId) {
+        String query = USER_COLUMNS + "INNER JOIN follows f ON u.id = f.follower_id WHERE f.followed_id = ?";
+        return queryUsers(query, "Error getting followers list for user: " + userId, userId);
+    }
+
+    @Override
+    public ArrayList<User> getBlockedUsers(int userId) {
+        String query = USER_COLUMNS + "INNER JOIN blocks b ON u.id = b.blocked_id WHERE b.blocker_id = ?";
+        return queryUsers(query, "Error getting blocked users for user: " + userId, userId);
+    }
+
+    @Override
+    public ArrayList<User> getPendingFriendRequests(int userId) {
+        String query = USER_COLUMNS +
+                      "INNER JOIN friendships f ON u.id = f.user_id1 " +
+                      "WHERE f.user_id2 = ? AND f.status = 'PENDING'";
+        return queryUsers(query, "Error getting pending friend requests for user: " + userId, userId);
+    }
+
+    @Override
+    public void addFriend(int fromUserId, int toUserId) {
+        String query = "INSERT INTO friendships (user_id1, user_id2, status) VALUES (?, ?, 'PENDING')";
+        update(query, "Error adding friend request from " + fromUserId + " to " + toUserId, fromUserId, toUserId);
+    }
+
+    @Override
+    public void addFriendships(List<int[]> pairs, boolean accepted) {
+        if (pairs.isEmpty()) {
+            return;
+        }
+        String query = "INSERT INTO friendships (user_id1, user_id2, status, channel_id) VALUES (?, ?, ?, ?)";
+
+        // Friendships, their DM channels and friend counts commit together
+        try {
+            UnitOfWork.run(dataSource, connection -> {
+                // Both ends are locked, in ID order by the counter update, before the inserts share-lock them
+                if (accepted) {
+                    Map<Integer, Integer> deltas = new HashMap<>();
+                    for (int[] pair : pairs) {
+                        deltas.merge(pair[0], 1, Integer::sum);
+                        deltas.merge(pair[1], 1, Integer::sum);
+                    }
+                    adjustCounts(connection, "friend_count", deltas);
+                }
+                int[] channelIds = accepted ? JdbcChannelDAO.insertChannels(connection, pairs.size()) : null;
+                try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                    for (int i = 0; i < pairs.size(); i++) {
+                        int[] pair = pairs.get(i);
+                        stmt.setInt(1, pair[0]);
+                        stmt.setInt(2, pair[1]);
+                        if (accepted) {
+                            stmt.setString(3, "ACCEPTED");
+                            stmt.setInt(4, channelIds[i]);
+                        } else {
+                            stmt.setString(3, "PENDING");
+                            stmt.setNull(4, Types.INTEGER);
+                        }
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error adding " + pairs.size() + " friendships", e);
+        }
+    }
+
+    @Override
+    public void addFollows(List<int[]> pairs) {
+        if (pairs.isEmpty()) {
+            return;
+        }
+        String query = "INSERT INTO follows (follower_id, followed_id) VALUES (?, ?)";
+
+        // Follows and follower counts commit together
+        try {
+            UnitOfWork.run(dataSource, connection -> {
+                // Both ends are locked before the inserts share-lock them
+                Map<Integer, Integer> deltas = new HashMap<>();
+                List<Integer> userIds = new ArrayList<>();
+                for (int[] pair : pairs) {
+                    deltas.merge(pair[1], 1, Integer::sum);
+                    userIds.add(pair[0]);
+                    userIds.add(pair[1]);
+                }
+                lockUsers(connection, userIds);
+                adjustCounts(connection, "follower_count", deltas);
+                try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                    for (int[] pair : pairs) {
+                        stmt.setInt(1, pair[0]);
+                        stmt.setInt(2, pair[1]);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error adding " + pairs.size() + " follows", e);
+        }
+    }
+
+    @Override
+    public void unblock(int userId, int blockedUserId) {
+        String query = "DELETE FROM blocks WHERE blocker_id = ? AND blocked_id = ?";
+        update(query, "Error unblocking user " + blockedUserId + " by " + userId, userId, blockedUserId);
+    }
+
+    @Override
+    public int getFriendCount(int userId) {
+        String query = "SELECT friend_count FROM users WHERE id = ?";
+        return queryInt(query, "Error getting friend count for user: " + userId, userId);
+    }
+
+    @Override
+    public int getFollowerCount(int userId) {
+        String query = "SELECT follower_count FROM users WHERE id = ?";
+        return queryInt(query, "Error getting follower count for user: " + userId, userId);
+    }
+
+    @Override
+    public boolean isBlocked(int userId, int otherUserId) {
+        String query = "SELECT EXISTS (SELECT 1 FROM blocks WHERE blocker_id = ? AND blocked_id = ?)";
+        return queryExists(query, "Error checking if user " + otherUserId + " is blocked by " + userId,
+                           otherUserId, userId);
+    }
+
+    @Override
+    public boolean isFriend(int userId, int otherUserId) {
+        String query = "SELECT EXISTS (SELECT 1 FROM friendships WHERE " +
+                      "((user_id1 = ? AND user_id2 = ?) OR (user_id1 = ? AND user_id2 = ?)) " +
+                      "AND status = 'ACCEPTED')";
+        return queryExists(query, "Error checking friendship between " + userId + " and " + otherUserId,
+                           userId, otherUserId, otherUserId, userId);
+    }
+
+    @Override
+    public boolean isFollowing(int followerId, int followedId) {
+        String query = "SELECT EXISTS (SELECT 1 FROM follows WHERE follower_id = ? AND followed_id = ?)";
+        return queryExists(query, "Error checking if " + followerId + " is following " + followedId,
+                           followerId, followedId);
+    }
+
+    @Override
+    public boolean hasPendingFriendRequest(int fromUserId, int toUserId) {
+        String query = "SELECT EXISTS (SELECT 1 FROM friendships WHERE " +
+                      "user_id1 = ? AND user_id2 = ? AND status = 'PENDING')";
+        return queryExists(query, "Error checking pending friend request from " + fromUserId + " to " + toUserId,
+                           fromUserId, toUserId);
+    }
+
+    @Override
+    public Map<Integer, RelationshipStatus> getRelationshipStatuses(int viewerId, List<Integer> userIds) {
+        Map<Integer, RelationshipStatus> found = new HashMap<>();
+        try {
+            queryRelationshipStatuses(viewerId, userIds, found);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting relationship statuses for user " + viewerId, e);
+        }
+
+        Map<Integer, RelationshipStatus> statuses = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            RelationshipStatus status = found.get(userId);
+            if (status != null) {
+                statuses.put(userId, status);
+            }
+        }
+        return statuses;
+    }
+
+    @Override
+    public int getChannelIdForFriendship(int user1Id, int user2Id) {
+        String query = "SELECT channel_id FROM friendships " +
+                      "WHERE ((user_id1 = ? AND user_id2 = ?) OR (user_id1 = ? AND user_id2 = ?)) " +
+                      "AND status = 'ACCEPTED' AND channel_id IS NOT NULL";
+        // Channel doesn't exist or friendship not accepted gives 0
+        return queryInt(query, "Error getting channel ID for friendship between " + user1Id + " and " + user2Id,
+                        user1Id, user2Id, user2Id, user1Id);
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Adds the statuses of RELATIONSHIP_STATUS_SELECT rows, keyed by user ID
+     */
+    protected static void readRelationshipStatuses(ResultSet rs, Map<Integer, RelationshipStatus> found)
+            throws SQLException {
+        while (rs.next()) {
+            String sent = rs.getString("sent_status");
+            String received = rs.getString("received_status");
+            found.put(rs.getInt("id"), new RelationshipStatus(
+                    rs.getInt("id"),
+                    rs.getInt("friend_count"),
+                    rs.getInt("follower_count"),
+                    rs.getBoolean("blocked"),
+                    "ACCEPTED".equals(sent) || "ACCEPTED".equals(received),
+                    rs.getBoolean("following"),
+                    "PENDING".equals(sent)));
+        }
+    }
+
+    /**
+     * Locks the rows of the given users until the caller's transaction ends, in ID order
+     * so concurrent writes on the same users cannot deadlock.
+     * Taken before inserting rows that reference them and moving their counters: the foreign key
+     * check of the insert share-locks them, and upgrading to the counter update's exclusive lock
+     * would deadlock with a concurrent write on the same users.
+     */
+    protected static void lockUsers(Connection connection, Collection<Integer> userIds) throws SQLException {
+        List<Integer> sorted = new ArrayList<>(new TreeSet<>(userIds));
+        for (int from = 0; from < sorted.size(); from += LOCK_BATCH_SIZE) {
+            List<Integer> batch = sorted.subList(from, Math.min(from + LOCK_BATCH_SIZE, sorted.size()));
+            String sql = "SELECT id FROM users WHERE id IN (" + String.join(", ", Collections.nCopies(batch.size(), "?"))
+                    + ") ORDER BY id FOR UPDATE";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setInt(i + 1, batch.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        // Each row read is locked
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves a counter column of each user by its delta, in the caller's transaction.
+     * Users are updated in ID order so concurrent batches lock them in the same order.
+     */
+    private static void adjustCounts(Connection connection, String column, Map<Integer, Integer> deltas)
+            throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE users SET " + column + " = " + column + " + ? WHERE id = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+                stmt.setInt(1, delta.getValue());
+                stmt.setInt(2, delta.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Prepares RELATIONSHIP_STATUS_SELECT completed by idCondition, with the viewer bound.
+     * The user ID parameters of idCondition start at index 5.
+     */
+    protected static PreparedStatement prepareRelationshipStatuses(Connection connection, String idCondition,
+                                                                   int viewerId) throws SQLException {
+        return prepare(connection, RELATIONSHIP_STATUS_SELECT + idCondition, viewerId, viewerId, viewerId, viewerId);
+    }
+
+    protected ArrayList<User> queryUsers(String query, String errorMessage, int... params) {
+        ArrayList<User> users = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = prepare(connection, query, params);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                users.add(readUser(rs));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+        return users;
+    }
+
+    protected int queryInt(String query, String errorMessage, int... params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = prepare(connection, query, params);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+        return 0;
+    }
+
+    protected boolean queryExists(String query, String errorMessage, int... params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = prepare(connection, query, params);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() && rs.getBoolean(1);
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+    }
+
+    protected void update(String query, String errorMessage, int... params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = prepare(connection, query, params)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Prepares a statement with its parameters bound in order
+     */
+    protected static PreparedStatement prepare(Connection connection, String query, int... params) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(query);
+        try {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setInt(i + 1, params[i]);
+            }
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        return stmt;
+    }
+
+    protected static User readUser(ResultSet rs) throws SQLException {
+        return new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
+    }
+}
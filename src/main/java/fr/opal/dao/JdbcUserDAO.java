@@ -0,0 +1,196 @@
+package fr.opal.dao;
+
+import fr.opal.db.UnitOfWork;
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.User;
+
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserDAO over a JDBC data source, shared by the MySQL (and embedded H2) and PostgreSQL DAOs.
+ * Subclasses only provide the writes whose SQL differs between dialects:
+ * reading a generated key back from a single insert, and the profile upsert.
+ */
+public abstract class JdbcUserDAO extends UserDAO {
+    protected final DataSource dataSource;
+
+    protected JdbcUserDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Get user by username
+     */
+    @Override
+    public User getUserById(String username) {
+        String sql = "SELECT id, username, password FROM users WHERE username = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving user: " + username, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get user by database ID (integer primary key)
+     */
+    @Override
+    public User getUserByDatabaseId(int id) {
+        String sql = "SELECT id, username, password FROM users WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving user: " + id, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get a page of users ordered by ID
+     */
+    @Override
+    public List<User> getUsersAfter(int afterId, int limit) {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT id, username FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new User(rs.getInt("id"), rs.getString("username"), ""));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing users after: " + afterId, e);
+        }
+        return users;
+    }
+
+    /**
+     * Create several users as one batch, in a single transaction
+     */
+    @Override
+    public List<User> createUsers(Map<String, String> passwordsByUsername) {
+        List<User> created = new ArrayList<>(passwordsByUsername.size());
+        if (passwordsByUsername.isEmpty()) {
+            return created;
+        }
+        String sql = "INSERT INTO users(username, password) VALUES (?, ?)";
+        try {
+            UnitOfWork.run(dataSource, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Map.Entry<String, String> user : passwordsByUsername.entrySet()) {
+                        ps.setString(1, user.getKey());
+                        ps.setString(2, user.getValue());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    // Keys come back in insertion order
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        for (Map.Entry<String, String> user : passwordsByUsername.entrySet()) {
+                            if (!rs.next()) {
+                                throw new SQLException("No ID generated for user: " + user.getKey());
+                            }
+                            created.add(new User(rs.getInt(1), user.getKey(), user.getValue()));
+                        }
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating " + passwordsByUsername.size() + " users", e);
+        }
+        return created;
+    }
+
+    /**
+     * Get user profile
+     */
+    @Override
+    public Profile getProfile(int userId) {
+        String sql = "SELECT user_id, display_name, bio, contact_info FROM user_profiles WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Profile(rs.getInt("user_id"), rs.getString("display_name"), rs.getString("bio"), rs.getString("contact_info"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error retrieving profile for user: " + userId, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get list of permissions for a user
+     */
+    @Override
+    public List<Permission> listPermissions(int userId) {
+        List<Permission> permissions = new ArrayList<>();
+        String sql = "SELECT id, name FROM permissions WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    permissions.add(new Permission(rs.getInt("id"), rs.getString("name")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing permissions for user: " + userId, e);
+        }
+        return permissions;
+    }
+
+    /**
+     * Update an existing permission
+     */
+    @Override
+    public void updatePermission(int permissionId, String permissionName) {
+        String sql = "UPDATE permissions SET name = ? WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, permissionName);
+            ps.setInt(2, permissionId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating permission: " + permissionId, e);
+        }
+    }
+
+    /**
+     * Delete a permission
+     */
+    @Override
+    public void deletePermission(int permissionId) {
+        String sql = "DELETE FROM permissions WHERE id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, permissionId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting permission: " + permissionId, e);
+        }
+    }
+}
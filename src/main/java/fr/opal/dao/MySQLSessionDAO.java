@@ -6,25 +6,27 @@ import fr.opal.type.StyleColor;
 import fr.opal.type.StylePalette;
 
 import java.sql.*;
+import javax.sql.DataSource;
 
 /**
  * MySQL implementation of SessionDAO
  */
 public class MySQLSessionDAO extends SessionDAO {
 
-    private Connection conn;
+    private DataSource dataSource;
 
     /**
-     * Constructor with connection
+     * Constructor with pooled data source
      */
-    public MySQLSessionDAO(Connection conn) {
-        this.conn = conn;
+    public MySQLSessionDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
 
     @Override
     public SessionSettings getSessionSettings(int userId) {
         String sql = "SELECT font_size, style_palette, accent_color FROM session_settings WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -57,7 +59,8 @@ public class MySQLSessionDAO extends SessionDAO {
     public void saveFontSize(int userId, int fontSize) {
         ensureSettingsExist(userId);
         String sql = "UPDATE session_settings SET font_size = ? WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, fontSize);
             ps.setInt(2, userId);
             ps.executeUpdate();
@@ -69,7 +72,8 @@ public class MySQLSessionDAO extends SessionDAO {
     @Override
     public int getFontSize(int userId) {
         String sql = "SELECT font_size FROM session_settings WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -85,7 +89,8 @@ public class MySQLSessionDAO extends SessionDAO {
     public void saveStylePalette(int userId, StylePalette stylePalette) {
         ensureSettingsExist(userId);
         String sql = "UPDATE session_settings SET style_palette = ? WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, stylePalette.name());
             ps.setInt(2, userId);
             ps.executeUpdate();
@@ -97,7 +102,8 @@ public class MySQLSessionDAO extends SessionDAO {
     @Override
     public StylePalette getStylePalette(int userId) {
         String sql = "SELECT style_palette FROM session_settings WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -116,7 +122,8 @@ public class MySQLSessionDAO extends SessionDAO {
     public void saveAccentColor(int userId, StyleColor accentColor) {
         ensureSettingsExist(userId);
         String sql = "UPDATE session_settings SET accent_color = ? WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, accentColor.name());
             ps.setInt(2, userId);
             ps.executeUpdate();
@@ -128,7 +135,8 @@ public class MySQLSessionDAO extends SessionDAO {
     @Override
     public StyleColor getAccentColor(int userId) {
         String sql = "SELECT accent_color FROM session_settings WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -147,7 +155,8 @@ public class MySQLSessionDAO extends SessionDAO {
     public void saveSessionSettings(int userId, SessionSettings settings) {
         ensureSettingsExist(userId);
         String sql = "UPDATE session_settings SET font_size = ?, style_palette = ?, accent_color = ? WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, settings.getFontSize());
             ps.setString(2, settings.getStylePalette().name());
             ps.setString(3, settings.getAccentColor().name());
@@ -163,7 +172,8 @@ public class MySQLSessionDAO extends SessionDAO {
      */
     private void ensureSettingsExist(int userId) {
         String checkSql = "SELECT user_id FROM session_settings WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(checkSql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(checkSql)) {
             ps.setInt(1, userId);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
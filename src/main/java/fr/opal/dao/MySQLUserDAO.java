@@ -6,62 +6,18 @@ import fr.opal.type.User;
 import fr.opal.type.Profile;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import javax.sql.DataSource;
 
 /**
- * MySQL implementation of UserDAO
+ * MySQL implementation of UserDAO, also used for embedded H2 in MySQL mode
  */
-public class MySQLUserDAO extends UserDAO {
-    private Connection conn;
+public class MySQLUserDAO extends JdbcUserDAO {
 
     /**
      * Default constructor
      */
-    public MySQLUserDAO(Connection _conn) {
-        this.conn = _conn;
-    }
-
-    /**
-     * Get user by username
-     */
-    @Override
-    public User getUserById(String username) {
-        String sql = "SELECT id, username, password FROM users WHERE username = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, username);
-            var rs = ps.executeQuery();
-            if (rs.next()) {
-                return new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException("Error retrieving user: " + username, e);
-        }
-        return null;
-    }
-
-    /**
-     * Get user by database ID (integer primary key)
-     */
-    @Override
-    public User getUserByDatabaseId(int id)
-    {
-        String sql = "SELECT id, username, password FROM users WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql))
-        {
-            ps.setInt(1, id);
-            var rs = ps.executeQuery();
-            if (rs.next())
-            {
-                User user = new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"));
-                return user;
-            }
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-        return null;
+    public MySQLUserDAO(DataSource _dataSource) {
+        super(_dataSource);
     }
 
     /**
@@ -70,7 +26,8 @@ public class MySQLUserDAO extends UserDAO {
     @Override
     public User createUser(String username, String password) {
         String sql = "INSERT INTO users(username, password) VALUES (?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, username);
             ps.setString(2, password);
             ps.executeUpdate();
@@ -87,31 +44,14 @@ public class MySQLUserDAO extends UserDAO {
         return null;
     }
 
-    /**
-     * Get user profile
-     */
-    @Override
-    public Profile getProfile(int userId) {
-        String sql = "SELECT user_id, display_name, bio, contact_info FROM user_profiles WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, userId);
-            var rs = ps.executeQuery();
-            if (rs.next()) {
-                return new Profile(rs.getInt("user_id"), rs.getString("display_name"), rs.getString("bio"), rs.getString("contact_info"));
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException("Error retrieving profile for user: " + userId, e);
-        }
-        return null;
-    }
-
     /**
      * Update user profile
      */
     @Override
     public void updateProfile(int userId, Profile profile) {
         String checkSql = "SELECT user_id FROM user_profiles WHERE user_id = ?";
-        try (PreparedStatement checkPs = conn.prepareStatement(checkSql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement checkPs = conn.prepareStatement(checkSql)) {
             checkPs.setInt(1, userId);
             var rs = checkPs.executeQuery();
             
@@ -139,33 +79,14 @@ public class MySQLUserDAO extends UserDAO {
         }
     }
 
-    /**
-     * Get list of permissions for a user
-     */
-    @Override
-    public List<Permission> listPermissions(int userId) {
-        List<Permission> permissions = new ArrayList<>();
-        String sql = "SELECT id, name FROM permissions WHERE user_id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, userId);
-            var rs = ps.executeQuery();
-            while (rs.next()) {
-                Permission permission = new Permission(rs.getInt("id"), rs.getString("name"));
-                permissions.add(permission);
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException("Error listing permissions for user: " + userId, e);
-        }
-        return permissions;
-    }
-
     /**
      * Create a new permission for a user
      */
     @Override
     public Permission createPermission(int userId, String permissionName) {
         String sql = "INSERT INTO permissions(user_id, name) VALUES (?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, userId);
             ps.setString(2, permissionName);
             ps.executeUpdate();
@@ -181,33 +102,4 @@ public class MySQLUserDAO extends UserDAO {
         }
         return null;
     }
-
-    /**
-     * Update an existing permission
-     */
-    @Override
-    public void updatePermission(int permissionId, String permissionName) {
-        String sql = "UPDATE permissions SET name = ? WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, permissionName);
-            ps.setInt(2, permissionId);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            throw new DataAccessException("Error updating permission: " + permissionId, e);
-        }
-    }
-
-    /**
-     * Delete a permission
-     */
-    @Override
-    public void deletePermission(int permissionId) {
-        String sql = "DELETE FROM permissions WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, permissionId);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            throw new DataAccessException("Error deleting permission: " + permissionId, e);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package fr.opal.dao;
+
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Message;
+
+import java.sql.*;
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL implementation of ChannelDAO.
+ * Keyset pages compare (created_at, id) row values, which Postgres serves from
+ * idx_channel_created as a single index range.
+ * Single-message writes and their counter updates are one statement each.
+ */
+public class PostgresChannelDAO extends JdbcChannelDAO {
+    /**
+     * Rows fetched per round trip while streaming
+     */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    public PostgresChannelDAO(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public int createChannel() {
+        String sql = "INSERT INTO channels DEFAULT VALUES RETURNING id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating channel", e);
+        }
+        return 0;
+    }
+
+    @Override
+    protected String keysetBefore() {
+        return "(m.created_at, m.id) < (?, ?)";
+    }
+
+    @Override
+    protected String keysetAfter() {
+        return "(m.created_at, m.id) > (?, ?)";
+    }
+
+    @Override
+    protected int bindKeyset(PreparedStatement ps, int index, Timestamp createdAt, long id) throws SQLException {
+        ps.setTimestamp(index++, createdAt);
+        ps.setLong(index++, id);
+        return index;
+    }
+
+    @Override
+    protected void configureStreaming(Connection conn, PreparedStatement ps) throws SQLException {
+        // The Postgres driver only uses a cursor inside a transaction; the pool rolls it back on release
+        conn.setAutoCommit(false);
+        ps.setFetchSize(STREAM_FETCH_SIZE);
+    }
+
+    @Override
+    public long saveMessage(Message message) {
+        // Message and channel message count commit together as one statement
+        String sql = "WITH saved AS (" +
+                     "  INSERT INTO messages(channel_id, sender_id, content) VALUES (?, ?, ?) RETURNING id, channel_id), " +
+                     "counted AS (" +
+                     "  UPDATE channels c SET message_count = c.message_count + 1 FROM saved s WHERE c.id = s.channel_id) " +
+                     "SELECT id FROM saved";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, message.getChannelId());
+            ps.setInt(2, message.getSender().getId());
+            ps.setString(3, message.getContent());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    long id = rs.getLong(1);
+                    message.setId(id);
+                    return id;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving message", e);
+        }
+        return 0;
+    }
+
+    @Override
+    public void deleteMessage(long messageId) {
+        // A concurrent deletion of the same row returns nothing here, so the count moves once
+        String sql = "WITH deleted AS (DELETE FROM messages WHERE id = ? RETURNING channel_id) " +
+                     "UPDATE channels c SET message_count = c.message_count - 1 FROM deleted d WHERE c.id = d.channel_id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, messageId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting message: " + messageId, e);
+        }
+    }
+}
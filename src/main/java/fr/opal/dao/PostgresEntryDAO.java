@@ -0,0 +1,91 @@
+package fr.opal.dao;
+
+import fr.opal.type.Entry;
+import fr.opal.type.UserPermission;
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PostgreSQL implementation of EntryDAO.
+ * Batch lookups bind an int[] to ANY(?), so any number of ids costs a single query.
+ */
+public class PostgresEntryDAO extends JdbcEntryDAO {
+
+    /**
+     * Constructor with pooled data source (must be managed by factory)
+     */
+    public PostgresEntryDAO(DataSource dataSource) {
+        super(dataSource, new CachingUserDAO(new PostgresUserDAO(dataSource)), new PostgresChannelDAO(dataSource));
+    }
+
+    /**
+     * Channel and entry are inserted by one statement
+     */
+    @Override
+    protected int[] insertEntry(Connection conn, Entry entry) throws SQLException {
+        String sql = "WITH channel AS (INSERT INTO channels DEFAULT VALUES RETURNING id) " +
+                     "INSERT INTO entries(title, content, parent_id, author_id, channel_id) " +
+                     "SELECT ?, ?, ?, ?, channel.id FROM channel RETURNING id, channel_id";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindEntryColumns(ps, entry);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No ID generated for entry");
+                }
+                return new int[]{rs.getInt("id"), rs.getInt("channel_id")};
+            }
+        }
+    }
+
+    /**
+     * Ignores case like the MySQL collation, served by idx_entries_parent_lower_title
+     */
+    @Override
+    protected String rootTitleCondition() {
+        return "lower(e.title) = lower(?)";
+    }
+
+    @Override
+    protected void queryPermissions(List<Integer> entryIds, Map<Integer, List<UserPermission>> grouped)
+            throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PERMISSIONS_SELECT + "= ANY(?)")) {
+            Array ids = conn.createArrayOf("integer", entryIds.toArray());
+            try {
+                ps.setArray(1, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    readPermissions(rs, grouped);
+                }
+            } finally {
+                ids.free();
+            }
+        }
+    }
+
+    @Override
+    protected String upsertPermissionSql() {
+        return "INSERT INTO entry_permissions(entry_id, username, permission) VALUES (?, ?, ?) " +
+               "ON CONFLICT (entry_id, username) DO UPDATE SET permission = EXCLUDED.permission";
+    }
+
+    /**
+     * One DELETE for all usernames
+     */
+    @Override
+    protected void deletePermissions(Connection conn, int entryId, Set<String> usernames) throws SQLException {
+        String sql = "DELETE FROM entry_permissions WHERE entry_id = ? AND username = ANY(?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            Array names = conn.createArrayOf("varchar", usernames.toArray());
+            try {
+                ps.setInt(1, entryId);
+                ps.setArray(2, names);
+                ps.executeUpdate();
+            } finally {
+                names.free();
+            }
+        }
+    }
+}
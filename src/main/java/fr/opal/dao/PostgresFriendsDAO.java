@@ -0,0 +1,119 @@
+package fr.opal.dao;
+
+import fr.opal.type.RelationshipStatus;
+
+import java.sql.*;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PostgreSQL implementation of FriendsDAO.
+ * Multi-step writes (block, accept, and every write moving the friend and follower counters)
+ * are single statements with data-modifying CTEs, which Postgres applies atomically
+ * without an explicit transaction.
+ */
+public class PostgresFriendsDAO extends JdbcFriendsDAO {
+
+    public PostgresFriendsDAO(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public void removeFriend(int userId, int friendId) {
+        // Accepted rows are counted per user first: rows in both directions would otherwise
+        // match the same user row, which a statement updates only once
+        String query = "WITH removed AS (" +
+                      "  DELETE FROM friendships WHERE " +
+                      "  (user_id1 = ? AND user_id2 = ?) OR (user_id1 = ? AND user_id2 = ?) " +
+                      "  RETURNING user_id1, user_id2, status), " +
+                      "ended AS (" +
+                      "  SELECT user_id1 AS user_id FROM removed WHERE status = 'ACCEPTED' " +
+                      "  UNION ALL SELECT user_id2 FROM removed WHERE status = 'ACCEPTED') " +
+                      "UPDATE users u SET friend_count = u.friend_count - d.ended " +
+                      "FROM (SELECT user_id, COUNT(*) AS ended FROM ended GROUP BY user_id) d " +
+                      "WHERE u.id = d.user_id";
+        update(query, "Error removing friend relationship between " + userId + " and " + friendId,
+               userId, friendId, friendId, userId);
+    }
+
+    @Override
+    public void follow(int followerId, int followedId) {
+        String query = "WITH followed AS (" +
+                      "  INSERT INTO follows (follower_id, followed_id) VALUES (?, ?) RETURNING followed_id) " +
+                      "UPDATE users u SET follower_count = u.follower_count + 1 FROM followed f WHERE u.id = f.followed_id";
+        update(query, "Error following user " + followedId + " by " + followerId, followerId, followedId);
+    }
+
+    @Override
+    public void unfollow(int followerId, int followedId) {
+        String query = "WITH unfollowed AS (" +
+                      "  DELETE FROM follows WHERE follower_id = ? AND followed_id = ? RETURNING followed_id) " +
+                      "UPDATE users u SET follower_count = u.follower_count - 1 FROM unfollowed f WHERE u.id = f.followed_id";
+        update(query, "Error unfollowing user " + followedId + " by " + followerId, followerId, followedId);
+    }
+
+    @Override
+    public void block(int userId, int blockedUserId) {
+        // Block, friendship removal, unfollow in both directions and counters commit together.
+        // Counter changes are summed per user first, as a statement may update a row only once.
+        String query = "WITH blocked AS (" +
+                      "  INSERT INTO blocks (blocker_id, blocked_id) VALUES (?, ?) RETURNING blocker_id, blocked_id), " +
+                      "unfriended AS (" +
+                      "  DELETE FROM friendships f USING blocked b " +
+                      "  WHERE (f.user_id1 = b.blocker_id AND f.user_id2 = b.blocked_id) " +
+                      "     OR (f.user_id1 = b.blocked_id AND f.user_id2 = b.blocker_id) " +
+                      "  RETURNING f.user_id1, f.user_id2, f.status), " +
+                      "unfollowed AS (" +
+                      "  DELETE FROM follows f USING blocked b " +
+                      "  WHERE (f.follower_id = b.blocker_id AND f.followed_id = b.blocked_id) " +
+                      "     OR (f.follower_id = b.blocked_id AND f.followed_id = b.blocker_id) " +
+                      "  RETURNING f.followed_id), " +
+                      "deltas AS (" +
+                      "  SELECT user_id1 AS user_id, -1 AS friends, 0 AS followers FROM unfriended WHERE status = 'ACCEPTED' " +
+                      "  UNION ALL SELECT user_id2, -1, 0 FROM unfriended WHERE status = 'ACCEPTED' " +
+                      "  UNION ALL SELECT followed_id, 0, -1 FROM unfollowed) " +
+                      "UPDATE users u SET friend_count = u.friend_count + d.friends, " +
+                      "                   follower_count = u.follower_count + d.followers " +
+                      "FROM (SELECT user_id, SUM(friends) AS friends, SUM(followers) AS followers " +
+                      "      FROM deltas GROUP BY user_id) d " +
+                      "WHERE u.id = d.user_id";
+        update(query, "Error blocking user " + blockedUserId + " by " + userId, userId, blockedUserId);
+    }
+
+    /**
+     * One statement shape for any number of users
+     */
+    @Override
+    protected void queryRelationshipStatuses(int viewerId, List<Integer> userIds,
+                                             Map<Integer, RelationshipStatus> found) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = prepareRelationshipStatuses(connection, "= ANY(?)", viewerId)) {
+            Array ids = connection.createArrayOf("integer", userIds.toArray());
+            try {
+                stmt.setArray(5, ids);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    readRelationshipStatuses(rs, found);
+                }
+            } finally {
+                ids.free();
+            }
+        }
+    }
+
+    @Override
+    public void acceptFriendRequest(int requesterId, int userId) {
+        // The DM channel is only created when a pending request is found, and all rows commit together
+        String query = "WITH request AS (" +
+                      "  SELECT id, user_id1, user_id2 FROM friendships " +
+                      "  WHERE user_id1 = ? AND user_id2 = ? AND status = 'PENDING' FOR UPDATE), " +
+                      "channel AS (" +
+                      "  INSERT INTO channels (created_at) SELECT CURRENT_TIMESTAMP FROM request RETURNING id), " +
+                      "counted AS (" +
+                      "  UPDATE users u SET friend_count = u.friend_count + 1 FROM request r " +
+                      "  WHERE u.id IN (r.user_id1, r.user_id2)) " +
+                      "UPDATE friendships f SET status = 'ACCEPTED', channel_id = c.id, updated_at = CURRENT_TIMESTAMP " +
+                      "FROM request r, channel c WHERE f.id = r.id";
+        update(query, "Error accepting friend request from " + requesterId + " to " + userId, requesterId, userId);
+    }
+}
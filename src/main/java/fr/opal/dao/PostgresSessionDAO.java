@@ -0,0 +1,181 @@
+package fr.opal.dao;
+
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.SessionSettings;
+import fr.opal.type.StyleColor;
+import fr.opal.type.StylePalette;
+
+import java.sql.*;
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL implementation of SessionDAO.
+ * Every save is a single upsert on the user_id unique key, so no existence check is needed.
+ */
+public class PostgresSessionDAO extends SessionDAO {
+
+    /**
+     * Inserts a row with the given column set and the others at their defaults,
+     * or updates that column only
+     */
+    private static final String UPSERT_COLUMN =
+        "INSERT INTO session_settings (user_id, %1$s) VALUES (?, ?) " +
+        "ON CONFLICT (user_id) DO UPDATE SET %1$s = EXCLUDED.%1$s";
+
+    private final DataSource dataSource;
+
+    public PostgresSessionDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public SessionSettings getSessionSettings(int userId) {
+        // Creates default settings for a new user and returns the row in one round trip,
+        // without writing when the row already exists
+        String sql = "WITH created AS (" +
+                     "  INSERT INTO session_settings (user_id, font_size, style_palette, accent_color) " +
+                     "  VALUES (?, 14, 'LIGHT', 'BLUE') ON CONFLICT (user_id) DO NOTHING " +
+                     "  RETURNING font_size, style_palette, accent_color) " +
+                     "SELECT font_size, style_palette, accent_color FROM created " +
+                     "UNION ALL " +
+                     "SELECT font_size, style_palette, accent_color FROM session_settings WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new SessionSettings(rs.getInt("font_size"),
+                            parsePalette(rs.getString("style_palette")),
+                            parseColor(rs.getString("accent_color")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting session settings for user: " + userId, e);
+        }
+        return new SessionSettings();
+    }
+
+    @Override
+    public void saveFontSize(int userId, int fontSize) {
+        String sql = String.format(UPSERT_COLUMN, "font_size");
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, fontSize);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving font size for user: " + userId, e);
+        }
+    }
+
+    @Override
+    public int getFontSize(int userId) {
+        String sql = "SELECT font_size FROM session_settings WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("font_size");
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting font size for user: " + userId, e);
+        }
+        return 14; // default
+    }
+
+    @Override
+    public void saveStylePalette(int userId, StylePalette stylePalette) {
+        String sql = String.format(UPSERT_COLUMN, "style_palette");
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setString(2, stylePalette.name());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving style palette for user: " + userId, e);
+        }
+    }
+
+    @Override
+    public StylePalette getStylePalette(int userId) {
+        String sql = "SELECT style_palette FROM session_settings WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return parsePalette(rs.getString("style_palette"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting style palette for user: " + userId, e);
+        }
+        return StylePalette.LIGHT;
+    }
+
+    @Override
+    public void saveAccentColor(int userId, StyleColor accentColor) {
+        String sql = String.format(UPSERT_COLUMN, "accent_color");
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setString(2, accentColor.name());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving accent color for user: " + userId, e);
+        }
+    }
+
+    @Override
+    public StyleColor getAccentColor(int userId) {
+        String sql = "SELECT accent_color FROM session_settings WHERE user_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return parseColor(rs.getString("accent_color"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting accent color for user: " + userId, e);
+        }
+        return StyleColor.BLUE;
+    }
+
+    @Override
+    public void saveSessionSettings(int userId, SessionSettings settings) {
+        String sql = "INSERT INTO session_settings (user_id, font_size, style_palette, accent_color) VALUES (?, ?, ?, ?) " +
+                     "ON CONFLICT (user_id) DO UPDATE SET font_size = EXCLUDED.font_size, " +
+                     "style_palette = EXCLUDED.style_palette, accent_color = EXCLUDED.accent_color";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, settings.getFontSize());
+            ps.setString(3, settings.getStylePalette().name());
+            ps.setString(4, settings.getAccentColor().name());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving session settings for user: " + userId, e);
+        }
+    }
+
+    private static StylePalette parsePalette(String value) {
+        try {
+            return StylePalette.valueOf(value);
+        } catch (Exception ignored) {
+            return StylePalette.LIGHT;
+        }
+    }
+
+    private static StyleColor parseColor(String value) {
+        try {
+            return StyleColor.valueOf(value);
+        } catch (Exception ignored) {
+            return StyleColor.BLUE;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fr.opal.dao;
+
+import fr.opal.exception.DataAccessException;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.User;
+
+import java.sql.*;
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL implementation of UserDAO
+ */
+public class PostgresUserDAO extends JdbcUserDAO {
+
+    public PostgresUserDAO(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    /**
+     * Create a new user, reading the generated ID from RETURNING
+     */
+    @Override
+    public User createUser(String username, String password) {
+        String sql = "INSERT INTO users(username, password) VALUES (?, ?) RETURNING id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, username);
+            ps.setString(2, password);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new User(rs.getInt(1), username, password);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating user: " + username, e);
+        }
+        return null;
+    }
+
+    /**
+     * Update user profile in a single upsert
+     */
+    @Override
+    public void updateProfile(int userId, Profile profile) {
+        String sql = "INSERT INTO user_profiles(user_id, display_name, bio, contact_info) VALUES (?, ?, ?, ?) " +
+                     "ON CONFLICT (user_id) DO UPDATE SET display_name = EXCLUDED.display_name, " +
+                     "bio = EXCLUDED.bio, contact_info = EXCLUDED.contact_info, updated_at = CURRENT_TIMESTAMP";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setString(2, profile.getDisplayName());
+            ps.setString(3, profile.getBio());
+            ps.setString(4, profile.getContactInfo());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating profile for user: " + userId, e);
+        }
+    }
+
+    /**
+     * Create a new permission for a user
+     */
+    @Override
+    public Permission createPermission(int userId, String permissionName) {
+        String sql = "INSERT INTO permissions(user_id, name) VALUES (?, ?) RETURNING id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setString(2, permissionName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Permission(rs.getInt(1), permissionName);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error creating permission for user: " + userId, e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,212 @@
+package fr.opal.dao;
+
+import fr.opal.db.UnitOfWork;
+import fr.opal.type.User;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of User identities, indexed by database ID and by username.
+ * Bounded with LRU eviction and an optional time-to-live, which bounds how long a change
+ * made by another client can go unseen.
+ * The shared instance is configured with -Dopal.dao.userCache.capacity (default 1024)
+ * and -Dopal.dao.userCache.ttlSeconds (default 600, 0 keeps users until evicted).
+ */
+public class UserCache {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private static UserCache instance;
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, CachedUser> byId;
+    private final Map<String, Integer> idsByUsername = new HashMap<>();
+    // Incremented by every invalidation, so a load that overlapped one is not cached
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity maximum number of users kept
+     * @param ttlMillis time after which an entry is reloaded, 0 to keep entries until evicted
+     */
+    public UserCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the shared cache used by all user DAOs
+     */
+    public static synchronized UserCache getInstance() {
+        if (instance == null) {
+            instance = new UserCache(
+                    Integer.getInteger("opal.dao.userCache.capacity", DEFAULT_CAPACITY),
+                    Long.getLong("opal.dao.userCache.ttlSeconds", DEFAULT_TTL_SECONDS) * 1000);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached user with this ID, or loads and caches it.
+     * Null results are not cached, see putIfNotInvalidated for the other loads that are not.
+     */
+    public User getById(int id, Supplier<User> loader) {
+        long version;
+        synchronized (this) {
+            CachedUser cached = byId.get(id);
+            if (cached != null && !isExpired(cached)) {
+                hits.increment();
+                return cached.user;
+            }
+            if (cached != null) {
+                remove(id);
+            }
+            version = invalidations;
+        }
+        misses.increment();
+        User loaded = loader.get();
+        putIfNotInvalidated(loaded, version);
+        return loaded;
+    }
+
+    /**
+     * Returns the cached user with this username, or loads and caches it.
+     * Null results are not cached, see putIfNotInvalidated for the other loads that are not.
+     */
+    public User getByUsername(String username, Supplier<User> loader) {
+        long version;
+        synchronized (this) {
+            Integer id = idsByUsername.get(username);
+            CachedUser cached = id != null ? byId.get(id) : null;
+            if (cached != null && !isExpired(cached)) {
+                hits.increment();
+                return cached.user;
+            }
+            if (id != null) {
+                remove(id);
+            }
+            version = invalidations;
+        }
+        misses.increment();
+        User loaded = loader.get();
+        putIfNotInvalidated(loaded, version);
+        return loaded;
+    }
+
+    /**
+     * Adds or replaces a user in the cache
+     */
+    public synchronized void put(User user) {
+        if (user == null) {
+            return;
+        }
+        remove(user.getId());
+        byId.put(user.getId(), new CachedUser(user, System.currentTimeMillis()));
+        idsByUsername.put(user.getUsername(), user.getId());
+
+        Iterator<Map.Entry<Integer, CachedUser>> eldest = byId.entrySet().iterator();
+        while (byId.size() > capacity && eldest.hasNext()) {
+            CachedUser evicted = eldest.next().getValue();
+            eldest.remove();
+            idsByUsername.remove(evicted.user.getUsername());
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Caches a loaded user unless an invalidation ran since the load started, as the user may have
+     * been read before the change that invalidated it, or unless it was read inside a unit of work,
+     * which may have written it and still roll back
+     */
+    private synchronized void putIfNotInvalidated(User user, long version) {
+        if (invalidations == version && !UnitOfWork.isOpen()) {
+            put(user);
+        }
+    }
+
+    /**
+     * Drops the user with this ID so the next lookup reloads it
+     */
+    public synchronized void invalidate(int id) {
+        invalidations++;
+        remove(id);
+    }
+
+    /**
+     * Drops the user with this username so the next lookup reloads it
+     */
+    public synchronized void invalidate(String username) {
+        invalidations++;
+        Integer id = idsByUsername.get(username);
+        if (id != null) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Empties the cache
+     */
+    public synchronized void invalidateAll() {
+        invalidations++;
+        byId.clear();
+        idsByUsername.clear();
+    }
+
+    private void remove(int id) {
+        CachedUser removed = byId.remove(id);
+        if (removed != null) {
+            idsByUsername.remove(removed.user.getUsername());
+        }
+    }
+
+    private boolean isExpired(CachedUser cached) {
+        return ttlMillis > 0 && System.currentTimeMillis() - cached.loadedAt > ttlMillis;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    @Override
+    public String toString() {
+        return "UserCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    private static final class CachedUser {
+        final User user;
+        final long loadedAt;
+
+        CachedUser(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
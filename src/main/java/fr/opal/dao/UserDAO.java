@@ -4,7 +4,9 @@ import fr.opal.type.Permission;
 import fr.opal.type.User;
 import fr.opal.type.Profile;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Abstract DAO for user operations
@@ -21,11 +23,30 @@ public abstract class UserDAO {
      */
     abstract public User getUserByDatabaseId(int id);
 
+    /**
+     * Get a page of users ordered by ID, for keyset scans of the whole table
+     * Identities only: the users are returned without their password, which is not read
+     * @param afterId only users with a greater ID are returned, 0 for the first page
+     */
+    public abstract List<User> getUsersAfter(int afterId, int limit);
+
     /**
      * Create a new user
      */
     public abstract User createUser(String username, String password);
 
+    /**
+     * Create several users at once, in the map's iteration order
+     * Database implementations send them as one batch in a single transaction
+     */
+    public List<User> createUsers(Map<String, String> passwordsByUsername) {
+        List<User> created = new ArrayList<>(passwordsByUsername.size());
+        for (Map.Entry<String, String> user : passwordsByUsername.entrySet()) {
+            created.add(createUser(user.getKey(), user.getValue()));
+        }
+        return created;
+    }
+
     /**
      * Get user profile
      */
@@ -0,0 +1,440 @@
+package fr.opal.db;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Built-in JDBC connection pool.
+ * DAOs borrow a connection per operation and close it to give it back.
+ * Nested borrows on the same thread share the physical connection, so a DAO
+ * calling another DAO never holds two connections at once.
+ */
+public class ConnectionPool implements DataSource {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Config config;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<PooledConnection> threadConnection = new ThreadLocal<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Pool settings. Durations are in milliseconds, 0 disables the feature.
+     */
+    public static class Config {
+        int minSize = 2;
+        int maxSize = 10;
+        long borrowTimeout = 10_000;
+        long idleTimeout = 300_000;
+        long leakDetectionThreshold = 60_000;
+        boolean leakStackTraces;
+        long validationBypassWindow = 500;
+        int validationTimeoutSeconds = 2;
+
+        public Config minSize(int minSize) { this.minSize = minSize; return this; }
+        public Config maxSize(int maxSize) { this.maxSize = maxSize; return this; }
+        public Config borrowTimeout(long millis) { this.borrowTimeout = millis; return this; }
+        public Config idleTimeout(long millis) { this.idleTimeout = millis; return this; }
+        public Config leakDetectionThreshold(long millis) { this.leakDetectionThreshold = millis; return this; }
+        /** Records where every connection is borrowed, for leak reports; costs a stack capture per borrow */
+        public Config leakStackTraces(boolean enabled) { this.leakStackTraces = enabled; return this; }
+        /** Idle connections returned more recently than this are handed out without validation */
+        public Config validationBypassWindow(long millis) { this.validationBypassWindow = millis; return this; }
+        public Config validationTimeoutSeconds(int seconds) { this.validationTimeoutSeconds = seconds; return this; }
+    }
+
+    public ConnectionPool(String url, String user, String password, Config config) {
+        if (config.maxSize < 1 || config.minSize < 0 || config.minSize > config.maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + config.minSize + ", max=" + config.maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        for (int i = 0; i < config.minSize; i++) {
+            try {
+                idle.offer(new PooledConnection(openPhysical()));
+            } catch (SQLException e) {
+                LOGGER.warning("Could not pre-fill connection pool: " + e.getMessage());
+                break;
+            }
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "opal-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 30, 30, TimeUnit.SECONDS);
+        LOGGER.info("Connection pool started (min=" + config.minSize + ", max=" + config.maxSize + ")");
+    }
+
+    /**
+     * Borrows a connection. The returned handle must be closed to give it back to the pool.
+     * If the current thread already holds a connection, the same physical connection is shared.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        PooledConnection held = threadConnection.get();
+        if (held != null) {
+            held.depth++;
+            return held.newHandle();
+        }
+        return borrow(true);
+    }
+
+    /**
+     * Borrows a connection that is not shared with later borrows on this thread.
+     * Meant for long-lived work such as streaming a large result set, during which the
+     * thread must still be able to run other statements on its regular connection.
+     * It does not take part in the thread's transaction.
+     */
+    public Connection getUnsharedConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        return borrow(false);
+    }
+
+    private Connection borrow(boolean threadBound) throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.borrowTimeout + "ms waiting for a connection ("
+                        + borrowed.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysical());
+            }
+            pooled.depth = 1;
+            pooled.threadBound = threadBound;
+            pooled.owner = Thread.currentThread();
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.activeAt = pooled.borrowedAt;
+            pooled.borrowSite = config.leakDetectionThreshold > 0 && config.leakStackTraces
+                    ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pooled);
+            if (threadBound) {
+                threadConnection.set(pooled);
+            }
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool credentials are fixed at construction");
+    }
+
+    /**
+     * Pops idle connections until one passes validation.
+     * A connection returned within the bypass window was working a moment ago and is not
+     * validated again, which would cost a round trip per borrow under load.
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - candidate.lastUsed < config.validationBypassWindow) {
+                return candidate;
+            }
+            try {
+                if (candidate.physical.isValid(config.validationTimeoutSeconds)) {
+                    return candidate;
+                }
+            } catch (SQLException ignored) {
+                // Treated as invalid below
+            }
+            LOGGER.fine("Discarding broken pooled connection");
+            closeQuietly(candidate);
+        }
+        return null;
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /**
+     * Called when a handle is closed. Returns the physical connection once the outermost borrow ends.
+     */
+    private void release(PooledConnection pooled) {
+        if (--pooled.depth > 0) {
+            return;
+        }
+        if (pooled.threadBound) {
+            threadConnection.remove();
+        }
+        borrowed.remove(pooled);
+        pooled.owner = null;
+        pooled.borrowSite = null;
+        pooled.lastUsed = System.currentTimeMillis();
+
+        boolean reusable = !closed;
+        try {
+            if (pooled.physical.isClosed()) {
+                // Broken while borrowed: handed out again within the validation bypass window it would fail
+                reusable = false;
+            } else if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (reusable) {
+            idle.offerFirst(pooled);
+        } else {
+            closeQuietly(pooled);
+        }
+        permits.release();
+    }
+
+    /**
+     * Evicts idle connections above the minimum size and reports suspected leaks.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        if (config.idleTimeout > 0) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > config.minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed > config.idleTimeout && idle.remove(pooled)) {
+                    closeQuietly(pooled);
+                }
+            }
+        }
+
+        if (config.leakDetectionThreshold > 0) {
+            for (PooledConnection pooled : borrowed) {
+                Thread owner = pooled.owner;
+                if (owner != null && !pooled.leakReported && now - pooled.activeAt > config.leakDetectionThreshold) {
+                    pooled.leakReported = true;
+                    // Without recorded borrow sites, show where the owner is now, captured only for suspects
+                    Throwable site = pooled.borrowSite;
+                    StackTraceElement[] stack = site != null ? site.getStackTrace() : owner.getStackTrace();
+                    StringBuilder trace = new StringBuilder(site != null ? "\nBorrowed at:" : "\nOwner is now at:");
+                    for (StackTraceElement element : stack) {
+                        trace.append("\n\tat ").append(element);
+                    }
+                    LOGGER.warning("Possible connection leak: held by " + owner + " for "
+                            + (now - pooled.borrowedAt) + "ms" + trace);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restarts the leak detection clock of a borrowed connection.
+     * For long-lived borrows, such as a result set being streamed, which are not leaked as long
+     * as they make progress. Connections not borrowed from this pool are ignored.
+     */
+    public void markActive(Connection connection) {
+        if (!Proxy.isProxyClass(connection.getClass())) {
+            return;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(connection);
+        if (handler instanceof Handle) {
+            PooledConnection pooled = ((Handle) handler).pooled;
+            if (borrowed.contains(pooled)) {
+                pooled.activeAt = System.currentTimeMillis();
+                pooled.leakReported = false;
+            }
+        }
+    }
+
+    /**
+     * Number of connections currently borrowed.
+     */
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Number of connections waiting in the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes all idle connections and stops housekeeping.
+     * Borrowed connections are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private static void closeQuietly(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // Nothing left to do with a connection we are discarding
+        }
+    }
+
+    // ==================== DataSource boilerplate ====================
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection plus its borrow bookkeeping.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile Thread owner;
+        volatile long borrowedAt;
+        // Start of the leak detection clock: the borrow, or the last markActive
+        volatile long activeAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        volatile long lastUsed = System.currentTimeMillis();
+        int depth;
+        boolean threadBound;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Proxy given to callers: close() returns the connection instead of closing it.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection handle has already been returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement && QueryMetrics.getInstance().isEnabled()) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return InstrumentedStatement.wrap((Statement) result, sql, (Connection) proxy);
+            }
+            return result;
+        }
+    }
+}
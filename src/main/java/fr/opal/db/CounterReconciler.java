@@ -0,0 +1,149 @@
+package fr.opal.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Background check of the denormalized counters (users.friend_count, users.follower_count,
+ * channels.message_count) against the rows they count.
+ * The DAOs update counters in the same transaction as the rows, so drift only comes from
+ * writes made outside them, such as manual SQL or an older version of the application.
+ * Rows are recounted in ID ranges, each its own short statement, and only drifted rows are written.
+ * The interval is set with -Dopal.db.counters.reconcileMinutes (default 60, 0 disables).
+ */
+public final class CounterReconciler {
+
+    private static final Logger LOGGER = Logger.getLogger(CounterReconciler.class.getName());
+
+    /**
+     * Rows recounted per statement
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String FRIEND_COUNT =
+            "(SELECT COUNT(*) FROM friendships f " +
+            "WHERE (f.user_id1 = users.id OR f.user_id2 = users.id) AND f.status = 'ACCEPTED')";
+    private static final String FOLLOWER_COUNT =
+            "(SELECT COUNT(*) FROM follows f WHERE f.followed_id = users.id)";
+    private static final String MESSAGE_COUNT =
+            "(SELECT COUNT(*) FROM messages m WHERE m.channel_id = channels.id)";
+
+    private static final String[] USER_STATEMENTS = {
+            "UPDATE users SET friend_count = " + FRIEND_COUNT +
+            " WHERE id > ? AND id <= ? AND friend_count <> " + FRIEND_COUNT,
+            "UPDATE users SET follower_count = " + FOLLOWER_COUNT +
+            " WHERE id > ? AND id <= ? AND follower_count <> " + FOLLOWER_COUNT
+    };
+    private static final String[] CHANNEL_STATEMENTS = {
+            "UPDATE channels SET message_count = " + MESSAGE_COUNT +
+            " WHERE id > ? AND id <= ? AND message_count <> " + MESSAGE_COUNT
+    };
+
+    private final DataSource dataSource;
+    private final ScheduledExecutorService scheduler;
+
+    private CounterReconciler(DataSource dataSource, long intervalMinutes) {
+        this.dataSource = dataSource;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "opal-counter-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Schedules reconciliation of the counters behind a data source
+     * @return the running reconciler, or null when disabled
+     */
+    public static CounterReconciler schedule(DataSource dataSource) {
+        long intervalMinutes = Long.getLong("opal.db.counters.reconcileMinutes", 60);
+        if (intervalMinutes <= 0) {
+            return null;
+        }
+        LOGGER.fine("Counter reconciliation every " + intervalMinutes + " minutes");
+        return new CounterReconciler(dataSource, intervalMinutes);
+    }
+
+    /**
+     * Recounts every counter now
+     * @return the number of rows whose counters had drifted
+     */
+    public int reconcile() throws SQLException {
+        long start = System.nanoTime();
+        int fixed = reconcileTable("users", USER_STATEMENTS) + reconcileTable("channels", CHANNEL_STATEMENTS);
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (fixed > 0) {
+            LOGGER.warning("Counter reconciliation fixed " + fixed + " drifted rows in " + durationMs + " ms");
+        } else {
+            LOGGER.fine("Counters consistent, checked in " + durationMs + " ms");
+        }
+        return fixed;
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void runQuietly() {
+        try {
+            reconcile();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warning("Counter reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Borrows a connection per range, so reconciliation never holds one for long
+     */
+    private int reconcileTable(String table, String[] statements) throws SQLException {
+        int maxId;
+        try (Connection conn = dataSource.getConnection()) {
+            maxId = maxId(conn, table);
+        }
+        int fixed = 0;
+        for (int from = 0; from < maxId; from += BATCH_SIZE) {
+            try (Connection conn = dataSource.getConnection()) {
+                fixed += reconcileRange(conn, statements, from, Math.min(from + BATCH_SIZE, maxId));
+            }
+        }
+        return fixed;
+    }
+
+    /**
+     * Recounts every row in a single pass on the caller's connection, used to fill
+     * the counters when they are created
+     */
+    static void reconcileAll(Connection conn) throws SQLException {
+        reconcileRange(conn, USER_STATEMENTS, 0, maxId(conn, "users"));
+        reconcileRange(conn, CHANNEL_STATEMENTS, 0, maxId(conn, "channels"));
+    }
+
+    private static int reconcileRange(Connection conn, String[] statements, int fromExclusive, int toInclusive)
+            throws SQLException {
+        int fixed = 0;
+        for (String sql : statements) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, fromExclusive);
+                ps.setInt(2, toInclusive);
+                fixed += ps.executeUpdate();
+            }
+        }
+        return fixed;
+    }
+
+    private static int maxId(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package fr.opal.db;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -15,11 +18,81 @@ public class DatabaseInitializer {
     private static final Logger LOGGER = Logger.getLogger(DatabaseInitializer.class.getName());
 
     /**
-     * Ensures the database schema is up to date with the unified channel architecture.
-     * Adds missing columns/tables without dropping existing data.
-     * Safe to call on every startup.
+     * Full schema script, the same one used to set up a MySQL server
+     */
+    private static final String SCHEMA_RESOURCE = "/fr/opal/database_schema.sql";
+
+    /**
+     * PostgreSQL dialect of the same schema
+     */
+    public static final String POSTGRES_SCHEMA_RESOURCE = "/fr/opal/database_schema_postgres.sql";
+
+    /**
+     * Creates every table of database_schema.sql that does not exist yet.
+     * Used for fresh databases such as the embedded one; statements are IF NOT EXISTS.
+     */
+    public static void createSchema(Connection connection) {
+        createSchema(connection, SCHEMA_RESOURCE);
+    }
+
+    /**
+     * Runs a schema script from the classpath, one statement per ';'-terminated line group
+     * @param resource Absolute classpath location of the script
+     */
+    public static void createSchema(Connection connection, String resource) {
+        String script;
+        try (InputStream in = DatabaseInitializer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + resource);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Schema creation failed", e);
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            StringBuilder current = new StringBuilder();
+            for (String line : script.split("\\R")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    stmt.execute(current.substring(0, current.lastIndexOf(";")));
+                    current.setLength(0);
+                }
+            }
+            LOGGER.info("Database schema created");
+        } catch (SQLException e) {
+            LOGGER.severe("Error creating schema: " + e.getMessage());
+            throw new RuntimeException("Schema creation failed", e);
+        }
+    }
+
+    /**
+     * Brings the database schema up to date by applying pending versioned migrations.
+     * Adds missing columns, tables and indexes without dropping existing data.
+     * Safe to call on every startup: an up-to-date database only has its version read.
      */
     public static void ensureSchemaUpToDate(Connection connection) {
+        try {
+            int applied = SchemaMigrator.migrate(connection);
+            LOGGER.info("Database schema check complete" + (applied > 0 ? " (" + applied + " migrations applied)" : ""));
+        } catch (SQLException e) {
+            LOGGER.severe("Error checking/updating schema: " + e.getMessage());
+            throw new RuntimeException("Schema check failed", e);
+        }
+    }
+
+    /**
+     * Migration 1: upgrades databases created before the unified channel architecture.
+     * PostgreSQL databases are created from the current schema and need nothing.
+     */
+    static void upgradeToChannelArchitecture(Connection connection, SchemaMigrator.Dialect dialect) throws SQLException {
+        if (dialect == SchemaMigrator.Dialect.POSTGRES) {
+            return;
+        }
         try (Statement stmt = connection.createStatement()) {
             LOGGER.info("Checking database schema for unified channel architecture...");
 
@@ -40,37 +113,27 @@ public class DatabaseInitializer {
                     ") ENGINE=InnoDB;");
 
             // Check if friendships table has channel_id column
-            try {
-                ResultSet rs = stmt.executeQuery("SELECT channel_id FROM friendships LIMIT 1");
-                rs.close();
-                LOGGER.fine("friendships.channel_id column already exists");
-            } catch (SQLException e) {
-                // Column doesn't exist, add it
+            if (!hasColumn(connection, "friendships", "channel_id")) {
                 LOGGER.info("Adding channel_id column to friendships table...");
                 stmt.execute("ALTER TABLE friendships ADD COLUMN channel_id INT UNIQUE NULL");
                 LOGGER.info("Added channel_id column to friendships table");
             }
 
             // Ensure entries table has channel_id column
-            try {
-                ResultSet rs = stmt.executeQuery("SELECT channel_id FROM entries LIMIT 1");
-                rs.close();
-                LOGGER.fine("entries.channel_id column already exists");
-            } catch (SQLException e) {
-                // Column doesn't exist, add it
+            if (!hasColumn(connection, "entries", "channel_id")) {
                 LOGGER.info("Adding channel_id column to entries table...");
                 stmt.execute("ALTER TABLE entries ADD COLUMN channel_id INT UNIQUE NOT NULL");
                 LOGGER.info("Added channel_id column to entries table");
             }
+        }
 
-            // Create channels for accepted friendships that don't have one yet
-            createMissingFriendshipChannels(connection);
-
-            LOGGER.info("Database schema check complete");
+        // Create channels for accepted friendships that don't have one yet
+        createMissingFriendshipChannels(connection);
+    }
 
-        } catch (SQLException e) {
-            LOGGER.severe("Error checking/updating schema: " + e.getMessage());
-            throw new RuntimeException("Schema check failed", e);
+    static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            return rs.next();
         }
     }
 
@@ -4,14 +4,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.util.logging.Logger;
+import javax.sql.DataSource;
 
 /**
- * Singleton class to manage database connection.
- * Follows the Singleton pattern to ensure only one instance handles the connection.
+ * Singleton class to manage database connections.
+ * Owns the connection pool; DAOs borrow a connection per operation.
  */
 public class DatabaseManager {
 
@@ -21,8 +21,9 @@ public class DatabaseManager {
     private static final String URL;
     private static final String USER;
     private static final String PASSWORD;
+    private static final ConnectionPool.Config POOL_CONFIG;
 
-    private Connection connection;
+    private final ConnectionPool pool;
 
     static {
         Properties props = loadEnvFile();
@@ -33,9 +34,21 @@ public class DatabaseManager {
         if (URL == null || USER == null || PASSWORD == null) {
             throw new RuntimeException("Missing environment variables in .env (DB_URL, DB_USER, DB_PASSWORD)");
         }
+
+        POOL_CONFIG = new ConnectionPool.Config()
+                .minSize(intProperty(props, "DB_POOL_MIN_SIZE", 2))
+                .maxSize(intProperty(props, "DB_POOL_MAX_SIZE", 10))
+                .borrowTimeout(intProperty(props, "DB_POOL_BORROW_TIMEOUT_MS", 10_000))
+                .idleTimeout(intProperty(props, "DB_POOL_IDLE_TIMEOUT_MS", 300_000))
+                .leakDetectionThreshold(intProperty(props, "DB_POOL_LEAK_THRESHOLD_MS", 60_000))
+                .leakStackTraces(Boolean.parseBoolean(props.getProperty("DB_POOL_LEAK_STACK_TRACES", "false")));
     }
 
-    private DatabaseManager() {}
+    private DatabaseManager() {
+        this.pool = new ConnectionPool(URL, USER, PASSWORD, POOL_CONFIG);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "opal-pool-shutdown"));
+        CounterReconciler.schedule(pool);
+    }
 
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
@@ -61,20 +74,37 @@ public class DatabaseManager {
         return props;
     }
 
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
-     * Returns the active connection. Reconnects if the connection is closed or null.
+     * Borrows a connection from the pool. Callers must close it to return it.
      * @return Connection object
      */
     public Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                LOGGER.info("Database connection established.");
-            }
+            return pool.getConnection();
         } catch (SQLException e) {
-            LOGGER.severe("Failed to establish database connection: " + e.getMessage());
+            LOGGER.severe("Failed to obtain database connection: " + e.getMessage());
             throw new RuntimeException("Database connection failure", e);
         }
-        return connection;
+    }
+
+    /**
+     * Returns the pooled data source handed to DAOs.
+     * @return DataSource backed by the connection pool
+     */
+    public DataSource getDataSource() {
+        return pool;
     }
 }
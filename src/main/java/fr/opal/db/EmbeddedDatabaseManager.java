@@ -0,0 +1,73 @@
+package fr.opal.db;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Singleton managing the embedded H2 database used for single-user and offline deployments.
+ * The database is a local file opened in MySQL compatibility mode, so the MySQL DAOs and
+ * database_schema.sql run unchanged. The schema is created on first start.
+ */
+public class EmbeddedDatabaseManager {
+
+    private static EmbeddedDatabaseManager instance;
+    private static final Logger LOGGER = Logger.getLogger(EmbeddedDatabaseManager.class.getName());
+
+    /**
+     * System property overriding the database file, without the .mv.db extension
+     */
+    public static final String PATH_PROPERTY = "opal.embedded.path";
+
+    /**
+     * MySQL mode for the DAO dialect (ON DUPLICATE KEY, ENUM, inline INDEX),
+     * lower-case identifiers and case-insensitive strings like the MySQL collation
+     */
+    private static final String URL_OPTIONS =
+            ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;IGNORECASE=TRUE";
+
+    private static final ConnectionPool.Config POOL_CONFIG = new ConnectionPool.Config()
+            .minSize(1)
+            .maxSize(4)
+            .borrowTimeout(10_000)
+            .idleTimeout(300_000)
+            .leakDetectionThreshold(60_000);
+
+    private final ConnectionPool pool;
+
+    private EmbeddedDatabaseManager() {
+        Path file = Paths.get(System.getProperty(PATH_PROPERTY,
+                Paths.get(System.getProperty("user.home"), ".opal", "opal").toString())).toAbsolutePath();
+        long start = System.nanoTime();
+        this.pool = new ConnectionPool("jdbc:h2:file:" + file + URL_OPTIONS, "sa", "", POOL_CONFIG);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "opal-embedded-shutdown"));
+
+        try (Connection conn = pool.getConnection()) {
+            DatabaseInitializer.createSchema(conn);
+            DatabaseInitializer.ensureSchemaUpToDate(conn);
+        } catch (SQLException e) {
+            pool.close();
+            throw new RuntimeException("Embedded database initialization failure", e);
+        }
+        CounterReconciler.schedule(pool);
+        LOGGER.info("Embedded database " + file + " ready in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    public static synchronized EmbeddedDatabaseManager getInstance() {
+        if (instance == null) {
+            instance = new EmbeddedDatabaseManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the pooled data source handed to DAOs.
+     * @return DataSource backed by the connection pool
+     */
+    public DataSource getDataSource() {
+        return pool;
+    }
+}
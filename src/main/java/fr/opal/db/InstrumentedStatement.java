@@ -0,0 +1,122 @@
+package fr.opal.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Statement proxy timing every execution into QueryMetrics.
+ * Rows are counted as update counts for writes and as next() calls on the returned result sets.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+    private final Statement statement;
+    private final String preparedSql;
+    private final Connection connection;
+    private QueryMetrics.ShapeMetrics lastExecuted;
+    private Statement proxy;
+
+    private InstrumentedStatement(Statement statement, String preparedSql, Connection connection) {
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+        this.connection = connection;
+    }
+
+    /**
+     * Wraps a statement created through a pooled connection handle
+     * @param preparedSql SQL the statement was prepared with, null for plain statements
+     * @param connection Handle the statement was created from, returned by getConnection()
+     */
+    static Statement wrap(Statement statement, String preparedSql, Connection connection) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        InstrumentedStatement handler = new InstrumentedStatement(statement, preparedSql, connection);
+        handler.proxy = (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "execute":
+            case "executeQuery":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args);
+            case "getResultSet":
+                return countRows((ResultSet) call(method, args), lastExecuted);
+            case "getConnection":
+                return connection;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        return call(method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        // Plain statements receive their SQL here; batched ones keep the prepared SQL
+        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call(method, args);
+        } finally {
+            if (sql != null) {
+                lastExecuted = QueryMetrics.getInstance().recordExecution(sql, System.nanoTime() - start);
+            }
+        }
+        if (lastExecuted == null) {
+            return result;
+        }
+        if (result instanceof ResultSet) {
+            return countRows((ResultSet) result, lastExecuted);
+        }
+        if (result instanceof Integer || result instanceof Long) {
+            lastExecuted.addRows(((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                lastExecuted.addRows(count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                lastExecuted.addRows(count);
+            }
+        }
+        return result;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ResultSet countRows(ResultSet resultSet, QueryMetrics.ShapeMetrics metrics) {
+        if (resultSet == null || metrics == null) {
+            return resultSet;
+        }
+        return new CountingResultSet(resultSet, proxy, metrics);
+    }
+}
@@ -0,0 +1,81 @@
+package fr.opal.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Singleton managing the PostgreSQL connection pool.
+ * Reads the same variables as the opal-app service of docker-compose.yml
+ * (DB_HOST, DB_PORT, DB_NAME, DB_USER, DB_PASSWORD), defaulting to its postgres service
+ * published on localhost, so "docker compose up postgres" is enough to run against it.
+ * The schema is created on first start.
+ */
+public class PostgresDatabaseManager {
+
+    private static PostgresDatabaseManager instance;
+    private static final Logger LOGGER = Logger.getLogger(PostgresDatabaseManager.class.getName());
+
+    private final ConnectionPool pool;
+
+    private PostgresDatabaseManager() {
+        String url = "jdbc:postgresql://" + setting("DB_HOST", "localhost") + ":" + setting("DB_PORT", "5432")
+                + "/" + setting("DB_NAME", "opal_db");
+        ConnectionPool.Config config = new ConnectionPool.Config()
+                .minSize(intSetting("DB_POOL_MIN_SIZE", 2))
+                .maxSize(intSetting("DB_POOL_MAX_SIZE", 10))
+                .borrowTimeout(intSetting("DB_POOL_BORROW_TIMEOUT_MS", 10_000))
+                .idleTimeout(intSetting("DB_POOL_IDLE_TIMEOUT_MS", 300_000))
+                .leakDetectionThreshold(intSetting("DB_POOL_LEAK_THRESHOLD_MS", 60_000))
+                .leakStackTraces(Boolean.parseBoolean(setting("DB_POOL_LEAK_STACK_TRACES", "false")));
+        this.pool = new ConnectionPool(url, setting("DB_USER", "opal_user"), setting("DB_PASSWORD", "opal_password"), config);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "opal-pool-shutdown"));
+
+        try (Connection conn = pool.getConnection()) {
+            DatabaseInitializer.createSchema(conn, DatabaseInitializer.POSTGRES_SCHEMA_RESOURCE);
+            DatabaseInitializer.ensureSchemaUpToDate(conn);
+        } catch (SQLException e) {
+            LOGGER.severe("Failed to initialize PostgreSQL schema: " + e.getMessage());
+            throw new RuntimeException("Database connection failure", e);
+        }
+        CounterReconciler.schedule(pool);
+        LOGGER.info("Using PostgreSQL at " + url);
+    }
+
+    public static synchronized PostgresDatabaseManager getInstance() {
+        if (instance == null) {
+            instance = new PostgresDatabaseManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Environment variable, then system property of the same name, then the default
+     */
+    private static String setting(String key, String defaultValue) {
+        String value = System.getenv(key);
+        if (value == null || value.isBlank()) {
+            value = System.getProperty(key, defaultValue);
+        }
+        return value.trim();
+    }
+
+    private static int intSetting(String key, int defaultValue) {
+        String value = setting(key, Integer.toString(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the pooled data source handed to DAOs.
+     * @return DataSource backed by the connection pool
+     */
+    public DataSource getDataSource() {
+        return pool;
+    }
+}
@@ -0,0 +1,171 @@
+package fr.opal.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Flags suspicious statements as QueryMetrics records them:
+ * an operation running the same query shape more than a set number of times (N+1 access),
+ * and any statement slower than a set threshold.
+ * Findings are logged as warnings with the query shape, its parameter count and the calling stack.
+ * The stack is only captured for flagged statements and each finding is logged at most once per
+ * cooldown, so the detector can stay on in production.
+ * Configured with -Dopal.db.detector=false, -Dopal.db.detector.repeatThreshold (default 10),
+ * -Dopal.db.detector.slowMillis (default 500) and -Dopal.db.detector.cooldownSeconds (default 60).
+ */
+public class QueryDetector {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryDetector.class.getName());
+
+    /**
+     * Frames kept in a reported stack
+     */
+    private static final int STACK_DEPTH = 15;
+
+    private static QueryDetector instance;
+
+    private volatile boolean enabled;
+    private volatile int repeatThreshold;
+    private volatile long slowNanos;
+    private volatile long cooldownNanos;
+
+    private final Map<String, Long> lastReported = new ConcurrentHashMap<>();
+    private final LongAdder repeatedFindings = new LongAdder();
+    private final LongAdder slowFindings = new LongAdder();
+
+    private QueryDetector() {
+        this.enabled = !"false".equalsIgnoreCase(System.getProperty("opal.db.detector"));
+        this.repeatThreshold = Integer.getInteger("opal.db.detector.repeatThreshold", 10);
+        this.slowNanos = Long.getLong("opal.db.detector.slowMillis", 500) * 1_000_000;
+        this.cooldownNanos = Long.getLong("opal.db.detector.cooldownSeconds", 60) * 1_000_000_000;
+    }
+
+    public static synchronized QueryDetector getInstance() {
+        if (instance == null) {
+            instance = new QueryDetector();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks one executed statement
+     * @param operation Operation it ran in, or QueryMetrics.NO_OPERATION
+     * @param repeats Statements of this shape run so far by the operation, this one included
+     */
+    void inspect(String operation, String sql, String shape, long nanos, int repeats) {
+        if (!enabled) {
+            return;
+        }
+        // Reported when the threshold is first crossed, not again for every later repeat
+        if (repeats == repeatThreshold + 1) {
+            repeatedFindings.increment();
+            report("repeated:" + operation + ":" + shape,
+                    "Operation " + operation + " ran more than " + repeatThreshold
+                    + " statements of the same shape (possible N+1)", sql, shape);
+        }
+        if (nanos > slowNanos) {
+            slowFindings.increment();
+            report("slow:" + operation + ":" + shape,
+                    "Slow statement in " + operation + ": " + nanos / 1_000_000 + "ms (threshold "
+                    + slowNanos / 1_000_000 + "ms)", sql, shape);
+        }
+    }
+
+    private void report(String key, String message, String sql, String shape) {
+        long now = System.nanoTime();
+        Long previous = lastReported.get(key);
+        if (previous != null && now - previous < cooldownNanos) {
+            return;
+        }
+        lastReported.put(key, now);
+        LOGGER.warning(message + "\n  shape: " + shape + "\n  parameters: " + countParameters(sql)
+                + "\n  stack:\n" + callingStack());
+    }
+
+    /**
+     * Counts ? placeholders outside string literals
+     */
+    static int countParameters(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Application frames leading to the statement, without the pool and proxy plumbing
+     */
+    private static String callingStack() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !isPlumbing(frame.getClassName()))
+                .limit(STACK_DEPTH)
+                .map(frame -> "    at " + frame)
+                .collect(Collectors.joining("\n")));
+    }
+
+    private static boolean isPlumbing(String className) {
+        return className.startsWith("fr.opal.db.")
+                || className.startsWith("jdk.proxy")
+                || className.startsWith("com.sun.proxy")
+                || className.startsWith("java.lang.reflect.")
+                || className.startsWith("jdk.internal.reflect.");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    /**
+     * @param repeatThreshold Statements of one shape an operation may run before being flagged
+     */
+    public void setRepeatThreshold(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowNanos / 1_000_000;
+    }
+
+    public void setSlowThresholdMillis(long millis) {
+        this.slowNanos = millis * 1_000_000;
+    }
+
+    /**
+     * @param seconds Minimum delay between two reports of the same finding, 0 to report all
+     */
+    public void setCooldownSeconds(long seconds) {
+        this.cooldownNanos = seconds * 1_000_000_000;
+    }
+
+    /**
+     * Number of N+1 findings, including those not logged because of the cooldown
+     */
+    public long getRepeatedFindings() {
+        return repeatedFindings.sum();
+    }
+
+    /**
+     * Number of slow statements, including those not logged because of the cooldown
+     */
+    public long getSlowFindings() {
+        return slowFindings.sum();
+    }
+}
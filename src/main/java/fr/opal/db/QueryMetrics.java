@@ -0,0 +1,245 @@
+package fr.opal.db;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Process-wide statement metrics, collected by the connection pool for every statement run
+ * through it, whatever the backend.
+ * Statements are grouped by the facade operation that ran them (see {@link #operation(String)})
+ * and by query shape, with call counts, row counts and a latency histogram per group.
+ * Enabled by default; -Dopal.db.metrics=false turns collection off and
+ * -Dopal.db.metrics.logIntervalSeconds=N logs a snapshot every N seconds.
+ */
+public class QueryMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryMetrics.class.getName());
+
+    /**
+     * Operation name of statements run outside any operation
+     */
+    public static final String NO_OPERATION = "(none)";
+
+    /**
+     * Latency buckets: bucket i holds durations below 2^i microseconds, the last one everything else
+     */
+    private static final int BUCKETS = 25;
+
+    /**
+     * Raw SQL strings whose shape is remembered; IN lists of many sizes would grow it without bound
+     */
+    private static final int SHAPE_CACHE_LIMIT = 4096;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static QueryMetrics instance;
+
+    private final Map<String, Map<String, ShapeMetrics>> byOperation = new ConcurrentHashMap<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final ThreadLocal<QueryOperation> currentOperation = new ThreadLocal<>();
+    private volatile boolean enabled;
+
+    private QueryMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics(!"false".equalsIgnoreCase(System.getProperty("opal.db.metrics")));
+            long interval = Long.getLong("opal.db.metrics.logIntervalSeconds", 0);
+            if (interval > 0) {
+                instance.startPeriodicLog(interval);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Opens an operation on the current thread, e.g.
+     * {@code try (QueryOperation op = QueryMetrics.operation("EntryFacade.loadEntry")) { ... }}
+     * @param name Operation name, conventionally Facade.method
+     */
+    public static QueryOperation operation(String name) {
+        return getInstance().begin(name);
+    }
+
+    QueryOperation begin(String name) {
+        if (!enabled || currentOperation.get() != null) {
+            return QueryOperation.NESTED;
+        }
+        QueryOperation operation = new QueryOperation(name);
+        currentOperation.set(operation);
+        return operation;
+    }
+
+    void end(QueryOperation operation) {
+        if (currentOperation.get() == operation) {
+            currentOperation.remove();
+        }
+    }
+
+    /**
+     * Operation open on the current thread, or null
+     */
+    public QueryOperation getCurrentOperation() {
+        return currentOperation.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records one executed statement
+     * @param sql SQL as given to the driver
+     * @param nanos Execution time
+     * @return the group the statement was counted in, to which rows are added later
+     */
+    ShapeMetrics recordExecution(String sql, long nanos) {
+        QueryOperation operation = currentOperation.get();
+        String operationName = operation != null ? operation.getName() : NO_OPERATION;
+        String shape = shapeOf(sql);
+        ShapeMetrics metrics = byOperation
+                .computeIfAbsent(operationName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(shape, ShapeMetrics::new);
+        metrics.record(nanos);
+        int repeats = operation != null ? operation.statementExecuted(shape) : 1;
+        QueryDetector.getInstance().inspect(operationName, sql, shape, nanos, repeats);
+        return metrics;
+    }
+
+    /**
+     * Normalizes SQL so that statements differing only in layout or IN list size share a shape
+     */
+    String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = PLACEHOLDER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?...");
+            if (shapes.size() < SHAPE_CACHE_LIMIT) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Returns the current metrics, most expensive groups (total time) first
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Map<String, ShapeMetrics>> operation : byOperation.entrySet()) {
+            for (ShapeMetrics metrics : operation.getValue().values()) {
+                stats.add(metrics.toStats(operation.getKey()));
+            }
+        }
+        stats.sort(Comparator.comparingLong(QueryStats::getTotalMicros).reversed());
+        return stats;
+    }
+
+    /**
+     * Writes the current snapshot to the log, one line per operation and query shape
+     */
+    public void logSnapshot() {
+        List<QueryStats> stats = snapshot();
+        StringBuilder report = new StringBuilder("Query metrics (" + stats.size() + " groups)");
+        for (QueryStats stat : stats) {
+            report.append("\n  ").append(stat);
+        }
+        LOGGER.info(report.toString());
+    }
+
+    /**
+     * Clears all collected metrics
+     */
+    public void reset() {
+        byOperation.clear();
+    }
+
+    private void startPeriodicLog(long intervalSeconds) {
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "opal-query-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.scheduleAtFixedRate(this::logSnapshot, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Counters of one (operation, shape) group
+     */
+    static final class ShapeMetrics {
+        final String shape;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        ShapeMetrics(String shape) {
+            this.shape = shape;
+        }
+
+        void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            long micros = nanos / 1000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            histogram.incrementAndGet(bucket);
+        }
+
+        void addRows(long count) {
+            if (count > 0) {
+                rows.add(count);
+            }
+        }
+
+        QueryStats toStats(String operation) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            long maxMicros = maxNanos.get() / 1000;
+            return new QueryStats(operation, shape, calls.sum(), rows.sum(), totalNanos.sum() / 1000, maxMicros,
+                    Math.min(maxMicros, percentile(counts, total, 0.50)),
+                    Math.min(maxMicros, percentile(counts, total, 0.95)),
+                    Math.min(maxMicros, percentile(counts, total, 0.99)));
+        }
+
+        /**
+         * Upper bound, in microseconds, of the bucket holding the given percentile
+         */
+        private static long percentile(long[] counts, long total, double fraction) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (counts.length - 1);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package fr.opal.db;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Marks the statements run by the current thread as belonging to a named operation,
+ * usually a facade method, until closed. Use with try-with-resources.
+ * Operations do not nest: while one is open, inner ones are ignored so statements are
+ * attributed to the outermost call.
+ */
+public final class QueryOperation implements AutoCloseable {
+
+    /**
+     * Returned for inner operations and when metrics are disabled
+     */
+    static final QueryOperation NESTED = new QueryOperation(null);
+
+    private final String name;
+    private final long startedAt;
+    private int statementCount;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+
+    QueryOperation(String name) {
+        this.name = name;
+        this.startedAt = System.nanoTime();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of statements executed so far in this operation
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Called on the operation's own thread for every statement it runs
+     * @return how many statements of this shape the operation has run, this one included
+     */
+    int statementExecuted(String shape) {
+        statementCount++;
+        return shapeCounts.merge(shape, 1, Integer::sum);
+    }
+
+    @Override
+    public void close() {
+        if (this != NESTED) {
+            QueryMetrics.getInstance().end(this);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package fr.opal.db;
+
+/**
+ * Immutable snapshot of the metrics of one query shape within one operation.
+ * Durations are in microseconds; percentiles are bucket upper bounds, so they are
+ * accurate to a factor of two.
+ */
+public final class QueryStats {
+    private final String operation;
+    private final String shape;
+    private final long calls;
+    private final long rows;
+    private final long totalMicros;
+    private final long maxMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+
+    QueryStats(String operation, String shape, long calls, long rows, long totalMicros, long maxMicros,
+               long p50Micros, long p95Micros, long p99Micros) {
+        this.operation = operation;
+        this.shape = shape;
+        this.calls = calls;
+        this.rows = rows;
+        this.totalMicros = totalMicros;
+        this.maxMicros = maxMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+    }
+
+    /**
+     * Facade operation that ran the statements, or QueryMetrics.NO_OPERATION
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Normalized SQL: whitespace collapsed and placeholder lists folded to "?..."
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Rows read from result sets plus rows reported by updates
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMeanMicros() {
+        return calls == 0 ? 0 : totalMicros / calls;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP95Micros() {
+        return p95Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s calls=%d rows=%d total=%.1fms mean=%dus p50=%dus p95=%dus p99=%dus max=%dus  %s",
+                operation, calls, rows, totalMicros / 1000.0, getMeanMicros(),
+                p50Micros, p95Micros, p99Micros, maxMicros, shape);
+    }
+}
@@ -0,0 +1,234 @@
+package fr.opal.db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Versioned schema migrations.
+ * Applied versions are recorded in the schema_version table with the time each one took,
+ * so a migration runs once per database and startup only reads that table.
+ * New changes are appended to MIGRATIONS with the next version number; applied ones never change.
+ */
+public final class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private static final String CREATE_VERSION_TABLE =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY," +
+            "description VARCHAR(255) NOT NULL," +
+            "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "duration_ms BIGINT NOT NULL)";
+
+    /**
+     * SQL flavour of the database being migrated. H2 runs in MySQL mode and uses MYSQL.
+     */
+    enum Dialect {
+        MYSQL,
+        POSTGRES
+    }
+
+    /**
+     * Schema change applied inside the migration's transaction
+     */
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection conn, Dialect dialect) throws SQLException;
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Unified channel architecture", DatabaseInitializer::upgradeToChannelArchitecture),
+            new Migration(2, "Indexes on hot lookup columns", SchemaMigrator::addLookupIndexes),
+            new Migration(3, "Friend, follower and message counters", SchemaMigrator::addCounters),
+            new Migration(4, "Index on entry titles under a parent", SchemaMigrator::addEntryTitleIndex),
+            new Migration(5, "Case-insensitive index on entry titles under a parent", SchemaMigrator::addEntryLowerTitleIndex)
+    );
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies every migration newer than the database's version, in order
+     * @return the number of migrations applied
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        Dialect dialect = "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName())
+                ? Dialect.POSTGRES : Dialect.MYSQL;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE);
+        }
+
+        int current = currentVersion(conn);
+        int applied = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version > current) {
+                apply(conn, dialect, migration);
+                applied++;
+            }
+        }
+        if (applied == 0) {
+            LOGGER.fine("Database schema is at version " + current);
+        }
+        return applied;
+    }
+
+    /**
+     * Highest applied version, 0 for a database never migrated
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Dialect dialect, Migration migration) throws SQLException {
+        LOGGER.info("Applying schema migration " + migration.version + ": " + migration.description);
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // MySQL commits DDL implicitly, so only the version row is guaranteed to be atomic there
+            migration.step.apply(conn, dialect);
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, duration_ms) VALUES (?, ?, ?)")) {
+                ps.setInt(1, migration.version);
+                ps.setString(2, migration.description);
+                ps.setLong(3, durationMs);
+                ps.executeUpdate();
+            }
+            conn.commit();
+            LOGGER.info("Schema migration " + migration.version + " applied in " + durationMs + " ms");
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // ==================== Migrations ====================
+
+    /**
+     * Indexes for predicates that had none: child listing, pending requests, follower and
+     * blocked-by lookups, and permission lookups by username
+     */
+    private static void addLookupIndexes(Connection conn, Dialect dialect) throws SQLException {
+        createIndex(conn, "entries", "idx_entries_parent", "parent_id");
+        createIndex(conn, "friendships", "idx_friendships_user2_status", "user_id2", "status");
+        createIndex(conn, "follows", "idx_follows_followed", "followed_id");
+        createIndex(conn, "blocks", "idx_blocks_blocked", "blocked_id");
+        createIndex(conn, "entry_permissions", "idx_entry_permissions_username", "username");
+    }
+
+    /**
+     * Counter columns kept up to date by the DAOs in the same transaction as the counted rows,
+     * filled from the existing rows
+     */
+    private static void addCounters(Connection conn, Dialect dialect) throws SQLException {
+        addCounterColumn(conn, "users", "friend_count");
+        addCounterColumn(conn, "users", "follower_count");
+        addCounterColumn(conn, "channels", "message_count");
+        CounterReconciler.reconcileAll(conn);
+    }
+
+    /**
+     * Index behind findRootByTitle, until now only in the creation script.
+     * Databases created from the script already have it, and it makes the (parent_id) index redundant.
+     */
+    private static void addEntryTitleIndex(Connection conn, Dialect dialect) throws SQLException {
+        createIndex(conn, "entries", "idx_entries_parent_title", "parent_id", "title");
+    }
+
+    /**
+     * Postgres compares root titles through lower() to ignore case like the MySQL collation,
+     * which only an expression index serves. MySQL keeps using idx_entries_parent_title.
+     * Metadata does not list expression columns, so IF NOT EXISTS guards the creation instead.
+     */
+    private static void addEntryLowerTitleIndex(Connection conn, Dialect dialect) throws SQLException {
+        if (dialect != Dialect.POSTGRES) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_entries_parent_lower_title ON entries (parent_id, lower(title))");
+        }
+    }
+
+    private static void addCounterColumn(Connection conn, String table, String column) throws SQLException {
+        if (DatabaseInitializer.hasColumn(conn, table, column)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " INT NOT NULL DEFAULT 0");
+        }
+    }
+
+    /**
+     * Creates an index unless an existing one already starts with the same columns,
+     * e.g. the index MySQL creates for a foreign key or a wider composite index
+     */
+    static void createIndex(Connection conn, String table, String name, String... columns) throws SQLException {
+        List<String> wanted = Arrays.asList(columns);
+        for (List<String> existing : indexColumns(conn, table)) {
+            if (existing.size() >= wanted.size() && existing.subList(0, wanted.size()).equals(wanted)) {
+                LOGGER.fine("Index on " + table + " " + wanted + " already exists");
+                return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+        }
+    }
+
+    /**
+     * Column lists of the table's indexes, lower-cased, in index order
+     */
+    private static List<List<String>> indexColumns(Connection conn, String table) throws SQLException {
+        Map<String, Map<Integer, String>> indexes = new TreeMap<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index == null || column == null) {
+                    continue;
+                }
+                indexes.computeIfAbsent(index, key -> new TreeMap<>())
+                        .put((int) rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (Map<Integer, String> index : indexes.values()) {
+            result.add(new ArrayList<>(index.values()));
+        }
+        return result;
+    }
+}
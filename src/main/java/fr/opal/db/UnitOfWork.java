@@ -0,0 +1,114 @@
+package fr.opal.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+/**
+ * Runs a group of statements as one transaction with a single commit.
+ *
+ * The pool hands the same physical connection to every borrow made on the
+ * current thread, so DAO methods called from inside the work (which borrow
+ * their own connection) take part in the transaction automatically.
+ * A unit of work started inside another one joins the outer transaction.
+ */
+public final class UnitOfWork {
+
+    /**
+     * Work returning a result
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Work without a result
+     */
+    @FunctionalInterface
+    public interface VoidWork {
+        void execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Transactions started by units of work on the current thread and not yet committed or rolled back
+     */
+    private static final ThreadLocal<Integer> OPEN_TRANSACTIONS = ThreadLocal.withInitial(() -> 0);
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Whether the current thread runs inside a unit of work, whose writes may still be rolled back
+     */
+    public static boolean isOpen() {
+        return OPEN_TRANSACTIONS.get() > 0;
+    }
+
+    /**
+     * Runs the work in a transaction and returns its result.
+     * Commits if the work completes, rolls back if it throws.
+     */
+    public static <T> T call(DataSource dataSource, Work<T> work) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!conn.getAutoCommit()) {
+                // Already inside a transaction on this thread, the outer unit commits
+                return work.execute(conn);
+            }
+
+            conn.setAutoCommit(false);
+            OPEN_TRANSACTIONS.set(OPEN_TRANSACTIONS.get() + 1);
+            Exception failure = null;
+            try {
+                T result = work.execute(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+                rollbackQuietly(conn, e);
+                throw e;
+            } finally {
+                int open = OPEN_TRANSACTIONS.get() - 1;
+                if (open == 0) {
+                    OPEN_TRANSACTIONS.remove();
+                } else {
+                    OPEN_TRANSACTIONS.set(open);
+                }
+                restoreAutoCommitQuietly(conn, failure);
+            }
+        }
+    }
+
+    /**
+     * Runs the work in a transaction.
+     * Commits if the work completes, rolls back if it throws.
+     */
+    public static void run(DataSource dataSource, VoidWork work) throws SQLException {
+        call(dataSource, conn -> {
+            work.execute(conn);
+            return null;
+        });
+    }
+
+    private static void rollbackQuietly(Connection conn, Exception cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * A connection that cannot be reset is broken: the pool discards it on release.
+     * The failure of the work, if any, is kept and reported instead.
+     */
+    private static void restoreAutoCommitQuietly(Connection conn, Exception cause) {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (cause != null) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
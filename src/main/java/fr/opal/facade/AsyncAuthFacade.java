@@ -0,0 +1,77 @@
+package fr.opal.facade;
+
+import fr.opal.type.Profile;
+import fr.opal.type.Session;
+import fr.opal.type.User;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variant of AuthFacade for controllers.
+ * Each call runs on a virtual thread and its future completes on the JavaFX thread,
+ * so event handlers never block on the database. Cancel the future (or its AsyncScope)
+ * when the user navigates away.
+ */
+public class AsyncAuthFacade {
+
+    private static AsyncAuthFacade instance;
+    private final AuthFacade facade;
+    private final FacadeLock lock;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private AsyncAuthFacade() {
+        this.facade = AuthFacade.getInstance();
+        this.lock = facade.lock();
+    }
+
+    /**
+     * Gets the singleton instance
+     */
+    public static synchronized AsyncAuthFacade getInstance() {
+        if (instance == null) {
+            instance = new AsyncAuthFacade();
+        }
+        return instance;
+    }
+
+    // ==================== Authentication ====================
+
+    /**
+     * Async AuthFacade.login
+     */
+    public CompletableFuture<Session> login(String username, String password) {
+        return FacadeExecutor.supply(lock, () -> facade.login(username, password));
+    }
+
+    /**
+     * Async AuthFacade.logout
+     */
+    public CompletableFuture<Void> logout(String sessionId) {
+        return FacadeExecutor.run(lock, () -> facade.logout(sessionId));
+    }
+
+    /**
+     * Async AuthFacade.register
+     */
+    public CompletableFuture<User> register(String username, String password) {
+        return FacadeExecutor.supply(lock, () -> facade.register(username, password));
+    }
+
+    // ==================== Profile ====================
+
+    /**
+     * Async AuthFacade.getProfile
+     */
+    public CompletableFuture<Profile> getProfile(int userId) {
+        return FacadeExecutor.supply(lock, () -> facade.getProfile(userId));
+    }
+
+    /**
+     * Async AuthFacade.updateProfile
+     */
+    public CompletableFuture<Void> updateProfile(int userId, Profile profile) {
+        return FacadeExecutor.run(lock, () -> facade.updateProfile(userId, profile));
+    }
+}
@@ -0,0 +1,121 @@
+package fr.opal.facade;
+
+import fr.opal.type.Channel;
+import fr.opal.type.Message;
+import fr.opal.type.User;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variant of ChannelFacade for controllers.
+ * Each call runs on a virtual thread and its future completes on the JavaFX thread,
+ * so event handlers never block on the database. Cancel the future (or its AsyncScope)
+ * when the user navigates away.
+ */
+public class AsyncChannelFacade {
+
+    private static AsyncChannelFacade instance;
+    private final ChannelFacade facade;
+    private final FacadeLock lock;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private AsyncChannelFacade() {
+        this.facade = ChannelFacade.getInstance();
+        this.lock = facade.lock();
+    }
+
+    /**
+     * Gets the singleton instance
+     */
+    public static synchronized AsyncChannelFacade getInstance() {
+        if (instance == null) {
+            instance = new AsyncChannelFacade();
+        }
+        return instance;
+    }
+
+    // ==================== Channel Operations ====================
+
+    /**
+     * Async ChannelFacade.createChannel
+     */
+    public CompletableFuture<Integer> createChannel() {
+        return FacadeExecutor.supply(lock, () -> facade.createChannel());
+    }
+
+    /**
+     * Async ChannelFacade.getChannel
+     */
+    public CompletableFuture<Channel> getChannel(int channelId) {
+        return FacadeExecutor.supply(lock, () -> facade.getChannel(channelId));
+    }
+
+    /**
+     * Async ChannelFacade.deleteChannel
+     */
+    public CompletableFuture<Void> deleteChannel(int channelId) {
+        return FacadeExecutor.run(lock, () -> facade.deleteChannel(channelId));
+    }
+
+    // ==================== Message Operations ====================
+
+    /**
+     * Async ChannelFacade.getMessages
+     */
+    public CompletableFuture<List<Message>> getMessages(int channelId) {
+        return FacadeExecutor.supply(lock, () -> facade.getMessages(channelId));
+    }
+
+    /**
+     * Async ChannelFacade.getRecentMessages
+     */
+    public CompletableFuture<List<Message>> getRecentMessages(int channelId, int limit) {
+        return FacadeExecutor.supply(lock, () -> facade.getRecentMessages(channelId, limit));
+    }
+
+    /**
+     * Async ChannelFacade.getMessagesBefore
+     */
+    public CompletableFuture<List<Message>> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit) {
+        return FacadeExecutor.supply(lock, () -> facade.getMessagesBefore(channelId, beforeCreatedAt, beforeMessageId, limit));
+    }
+
+    /**
+     * Async ChannelFacade.getMessagesAfter
+     */
+    public CompletableFuture<List<Message>> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit) {
+        return FacadeExecutor.supply(lock, () -> facade.getMessagesAfter(channelId, afterCreatedAt, afterMessageId, limit));
+    }
+
+    /**
+     * Async ChannelFacade.sendMessage
+     */
+    public CompletableFuture<Message> sendMessage(int channelId, User sender, String content) {
+        return FacadeExecutor.supply(lock, () -> facade.sendMessage(channelId, sender, content));
+    }
+
+    /**
+     * Async ChannelFacade.deleteMessage
+     */
+    public CompletableFuture<Void> deleteMessage(long messageId) {
+        return FacadeExecutor.run(lock, () -> facade.deleteMessage(messageId));
+    }
+
+    /**
+     * Async ChannelFacade.updateMessage
+     */
+    public CompletableFuture<Void> updateMessage(long messageId, String newContent) {
+        return FacadeExecutor.run(lock, () -> facade.updateMessage(messageId, newContent));
+    }
+
+    /**
+     * Async ChannelFacade.getMessageCount
+     */
+    public CompletableFuture<Integer> getMessageCount(int channelId) {
+        return FacadeExecutor.supply(lock, () -> facade.getMessageCount(channelId));
+    }
+}
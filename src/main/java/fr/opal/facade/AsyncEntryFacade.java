@@ -0,0 +1,190 @@
+package fr.opal.facade;
+
+import fr.opal.type.Entry;
+import fr.opal.type.EPermission;
+import fr.opal.type.User;
+import fr.opal.type.Message;
+import fr.opal.type.EntryContextDTO;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variant of EntryFacade for controllers.
+ * Each call runs on a virtual thread and its future completes on the JavaFX thread,
+ * so event handlers never block on the database. Cancel the future (or its AsyncScope)
+ * when the user navigates away.
+ */
+public class AsyncEntryFacade {
+
+    private static AsyncEntryFacade instance;
+    private final EntryFacade facade;
+    private final FacadeLock lock;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private AsyncEntryFacade() {
+        this.facade = EntryFacade.getInstance();
+        this.lock = facade.lock();
+    }
+
+    /**
+     * Gets the singleton instance
+     */
+    public static synchronized AsyncEntryFacade getInstance() {
+        if (instance == null) {
+            instance = new AsyncEntryFacade();
+        }
+        return instance;
+    }
+
+    // ==================== Entry Loading ====================
+
+    /**
+     * Async EntryFacade.loadEntry
+     */
+    public CompletableFuture<EntryContextDTO> loadEntry(int id) {
+        return FacadeExecutor.supply(lock, () -> facade.loadEntry(id));
+    }
+
+    /**
+     * Async EntryFacade.loadEntryWithAccessCheck
+     */
+    public CompletableFuture<EntryContextDTO> loadEntryWithAccessCheck(int entryId, User user) {
+        return FacadeExecutor.supply(lock, () -> facade.loadEntryWithAccessCheck(entryId, user));
+    }
+
+    /**
+     * Async EntryFacade.loadInitialProject
+     */
+    public CompletableFuture<EntryContextDTO> loadInitialProject(String projectName) {
+        return FacadeExecutor.supply(lock, () -> facade.loadInitialProject(projectName));
+    }
+
+    /**
+     * Async EntryFacade.getEntryUIState
+     */
+    public CompletableFuture<EntryFacade.EntryUIState> getEntryUIState(Entry entry, User user) {
+        return FacadeExecutor.supply(lock, () -> facade.getEntryUIState(entry, user));
+    }
+
+    /**
+     * Async EntryFacade.getRootEntries
+     */
+    public CompletableFuture<List<Entry>> getRootEntries() {
+        return FacadeExecutor.supply(lock, () -> facade.getRootEntries());
+    }
+
+    /**
+     * Async EntryFacade.getChildEntries
+     */
+    public CompletableFuture<List<Entry>> getChildEntries(int parentId) {
+        return FacadeExecutor.supply(lock, () -> facade.getChildEntries(parentId));
+    }
+
+    /**
+     * Async EntryFacade.navigateToParent
+     */
+    public CompletableFuture<EntryContextDTO> navigateToParent(User user) {
+        return FacadeExecutor.supply(lock, () -> facade.navigateToParent(user));
+    }
+
+    // ==================== Entry Operations ====================
+
+    /**
+     * Async EntryFacade.saveEntry
+     */
+    public CompletableFuture<Void> saveEntry(Entry entry) {
+        return FacadeExecutor.run(lock, () -> facade.saveEntry(entry));
+    }
+
+    /**
+     * Async EntryFacade.updateEntryContent
+     */
+    public CompletableFuture<Void> updateEntryContent(int entryId, String title, String content, User user) {
+        return FacadeExecutor.run(lock, () -> facade.updateEntryContent(entryId, title, content, user));
+    }
+
+    /**
+     * Async EntryFacade.createChildEntry
+     */
+    public CompletableFuture<Entry> createChildEntry(Entry parent, String title, String content, User author) {
+        return FacadeExecutor.supply(lock, () -> facade.createChildEntry(parent, title, content, author));
+    }
+
+    /**
+     * Async EntryFacade.createEntry
+     */
+    public CompletableFuture<Entry> createEntry(String title, String content, User author) {
+        return FacadeExecutor.supply(lock, () -> facade.createEntry(title, content, author));
+    }
+
+    /**
+     * Async EntryFacade.deleteEntry
+     */
+    public CompletableFuture<Void> deleteEntry(int id) {
+        return FacadeExecutor.run(lock, () -> facade.deleteEntry(id));
+    }
+
+    /**
+     * Async EntryFacade.updateParentEntry
+     */
+    public CompletableFuture<Void> updateParentEntry(Entry entry, Entry newParent) {
+        return FacadeExecutor.run(lock, () -> facade.updateParentEntry(entry, newParent));
+    }
+
+    /**
+     * Async EntryFacade.addChildEntry
+     */
+    public CompletableFuture<Void> addChildEntry(Entry parent, Entry child) {
+        return FacadeExecutor.run(lock, () -> facade.addChildEntry(parent, child));
+    }
+
+    /**
+     * Async EntryFacade.removeChildEntry
+     */
+    public CompletableFuture<Void> removeChildEntry(Entry parent, Entry child) {
+        return FacadeExecutor.run(lock, () -> facade.removeChildEntry(parent, child));
+    }
+
+    // ==================== Comments and Permissions ====================
+
+    /**
+     * Async EntryFacade.addComment
+     */
+    public CompletableFuture<Void> addComment(Entry entry, User user, String commentText) {
+        return FacadeExecutor.run(lock, () -> facade.addComment(entry, user, commentText));
+    }
+
+    /**
+     * Async EntryFacade.removeMessage
+     */
+    public CompletableFuture<Void> removeMessage(Entry entry, Message message, User user) {
+        return FacadeExecutor.run(lock, () -> facade.removeMessage(entry, message, user));
+    }
+
+    /**
+     * Async EntryFacade.setUserPermission
+     */
+    public CompletableFuture<Void> setUserPermission(Entry entry, String username, EPermission permission, User currentUser) {
+        return FacadeExecutor.run(lock, () -> facade.setUserPermission(entry, username, permission, currentUser));
+    }
+
+    // ==================== Import / Export ====================
+
+    /**
+     * Async EntryFacade.importEntry
+     */
+    public CompletableFuture<Entry> importEntry(File file) {
+        return FacadeExecutor.supply(lock, () -> facade.importEntry(file));
+    }
+
+    /**
+     * Async EntryFacade.exportEntry
+     */
+    public CompletableFuture<Void> exportEntry(Entry entry, File file) {
+        return FacadeExecutor.run(lock, () -> facade.exportEntry(entry, file));
+    }
+}
@@ -0,0 +1,172 @@
+package fr.opal.facade;
+
+import fr.opal.type.RelationshipStatus;
+import fr.opal.type.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variant of FriendsFacade for controllers.
+ * Each call runs on a virtual thread and its future completes on the JavaFX thread,
+ * so event handlers never block on the database. Cancel the future (or its AsyncScope)
+ * when the user navigates away.
+ */
+public class AsyncFriendsFacade {
+
+    private static AsyncFriendsFacade instance;
+    private final FriendsFacade facade;
+    private final FacadeLock lock;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private AsyncFriendsFacade() {
+        this.facade = FriendsFacade.getInstance();
+        this.lock = facade.lock();
+    }
+
+    /**
+     * Gets the singleton instance
+     */
+    public static synchronized AsyncFriendsFacade getInstance() {
+        if (instance == null) {
+            instance = new AsyncFriendsFacade();
+        }
+        return instance;
+    }
+
+    // ==================== Friend Data ====================
+
+    /**
+     * Async FriendsFacade.loadUserData
+     */
+    public CompletableFuture<Void> loadUserData(int userId) {
+        return FacadeExecutor.run(lock, () -> facade.loadUserData(userId));
+    }
+
+    /**
+     * Async FriendsFacade.getFriendCount
+     */
+    public CompletableFuture<Integer> getFriendCount(int userId) {
+        return FacadeExecutor.supply(lock, () -> facade.getFriendCount(userId));
+    }
+
+    /**
+     * Async FriendsFacade.getFollowerCount
+     */
+    public CompletableFuture<Integer> getFollowerCount(int userId) {
+        return FacadeExecutor.supply(lock, () -> facade.getFollowerCount(userId));
+    }
+
+    /**
+     * Async FriendsFacade.searchUsers
+     */
+    public CompletableFuture<ArrayList<User>> searchUsers(String query) {
+        return FacadeExecutor.supply(lock, () -> facade.searchUsers(query));
+    }
+
+    /**
+     * Async FriendsFacade.getChannelIdForFriendship
+     */
+    public CompletableFuture<Integer> getChannelIdForFriendship(int user1Id, int user2Id) {
+        return FacadeExecutor.supply(lock, () -> facade.getChannelIdForFriendship(user1Id, user2Id));
+    }
+
+    // ==================== Relationship Changes ====================
+
+    /**
+     * Async FriendsFacade.sendFriendRequest
+     */
+    public CompletableFuture<Boolean> sendFriendRequest(int fromUserId, int toUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.sendFriendRequest(fromUserId, toUserId));
+    }
+
+    /**
+     * Async FriendsFacade.acceptFriendRequest
+     */
+    public CompletableFuture<Boolean> acceptFriendRequest(int userId, int requesterId) {
+        return FacadeExecutor.supply(lock, () -> facade.acceptFriendRequest(userId, requesterId));
+    }
+
+    /**
+     * Async FriendsFacade.declineFriendRequest
+     */
+    public CompletableFuture<Boolean> declineFriendRequest(int userId, int requesterId) {
+        return FacadeExecutor.supply(lock, () -> facade.declineFriendRequest(userId, requesterId));
+    }
+
+    /**
+     * Async FriendsFacade.removeFriend
+     */
+    public CompletableFuture<Boolean> removeFriend(int userId, int friendId) {
+        return FacadeExecutor.supply(lock, () -> facade.removeFriend(userId, friendId));
+    }
+
+    /**
+     * Async FriendsFacade.follow
+     */
+    public CompletableFuture<Boolean> follow(int followerId, int followedId) {
+        return FacadeExecutor.supply(lock, () -> facade.follow(followerId, followedId));
+    }
+
+    /**
+     * Async FriendsFacade.unfollow
+     */
+    public CompletableFuture<Boolean> unfollow(int followerId, int followedId) {
+        return FacadeExecutor.supply(lock, () -> facade.unfollow(followerId, followedId));
+    }
+
+    /**
+     * Async FriendsFacade.block
+     */
+    public CompletableFuture<Boolean> block(int userId, int blockedUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.block(userId, blockedUserId));
+    }
+
+    /**
+     * Async FriendsFacade.unblock
+     */
+    public CompletableFuture<Boolean> unblock(int userId, int blockedUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.unblock(userId, blockedUserId));
+    }
+
+    // ==================== Relationship Checks ====================
+
+    /**
+     * Async FriendsFacade.isBlocked
+     */
+    public CompletableFuture<Boolean> isBlocked(int userId, int otherUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.isBlocked(userId, otherUserId));
+    }
+
+    /**
+     * Async FriendsFacade.isFriend
+     */
+    public CompletableFuture<Boolean> isFriend(int userId, int otherUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.isFriend(userId, otherUserId));
+    }
+
+    /**
+     * Async FriendsFacade.isFollowing
+     */
+    public CompletableFuture<Boolean> isFollowing(int followerId, int followedId) {
+        return FacadeExecutor.supply(lock, () -> facade.isFollowing(followerId, followedId));
+    }
+
+    /**
+     * Async FriendsFacade.hasPendingFriendRequest
+     */
+    public CompletableFuture<Boolean> hasPendingFriendRequest(int fromUserId, int toUserId) {
+        return FacadeExecutor.supply(lock, () -> facade.hasPendingFriendRequest(fromUserId, toUserId));
+    }
+
+    /**
+     * Async FriendsFacade.getRelationshipStatuses
+     */
+    public CompletableFuture<Map<Integer, RelationshipStatus>> getRelationshipStatuses(int viewerId, List<Integer> userIds) {
+        return FacadeExecutor.supply(lock, () -> facade.getRelationshipStatuses(viewerId, userIds));
+    }
+}
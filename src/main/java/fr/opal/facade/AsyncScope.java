@@ -0,0 +1,43 @@
+package fr.opal.facade;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the async facade calls started by a view so they can all be cancelled
+ * when the user navigates away or closes the window.
+ * Only track calls whose result can be abandoned, such as loads: cancelling drops the
+ * result of a call already running, which still completes in the background.
+ */
+public class AsyncScope {
+
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers a future until it completes
+     * @return the same future, for chaining
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        pending.add(future);
+        future.whenComplete((value, error) -> pending.remove(future));
+        return future;
+    }
+
+    /**
+     * Cancels every call still pending in this scope, without interrupting the running ones
+     */
+    public void cancelAll() {
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Number of calls still pending
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -1,5 +1,7 @@
 package fr.opal.facade;
 
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
 import fr.opal.service.AuthManager;
 import fr.opal.type.Profile;
 import fr.opal.type.Session;
@@ -10,6 +12,7 @@ import fr.opal.type.User;
  */
 public class AuthFacade {
     private static AuthFacade instance;
+    private final FacadeLock lock = new FacadeLock();
     private Session currentSession;
 
     public static AuthFacade getInstance() {
@@ -22,71 +25,101 @@ public class AuthFacade {
     private AuthFacade() {
     }
 
+    /**
+     * Lock serializing this facade's calls, also held by its async variant
+     */
+    FacadeLock lock() {
+        return lock;
+    }
+
     /**
      * Authenticates a user with username and password
      */
     public Session login(String username, String password) {
-        Session session = AuthManager.getInstance().authenticate(username, password);
-        if (session != null) {
-            this.currentSession = session;
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("AuthFacade.login")) {
+            Session session = AuthManager.getInstance().authenticate(username, password);
+            if (session != null) {
+                this.currentSession = session;
+            }
+            return session;
         }
-        return session;
     }
 
     /**
      * Logs out a user by terminating their session
      */
     public void logout(String sessionId) {
-        AuthManager.getInstance().terminateSession(sessionId);
-        this.currentSession = null;
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("AuthFacade.logout")) {
+            AuthManager.getInstance().terminateSession(sessionId);
+            this.currentSession = null;
+        }
     }
 
     /**
      * Retrieves user profile
      */
     public Profile getProfile(int userId) {
-        return AuthManager.getInstance().getProfile(userId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("AuthFacade.getProfile")) {
+            return AuthManager.getInstance().getProfile(userId);
+        }
     }
 
     /**
      * Updates user profile information
      */
     public void updateProfile(int userId, Profile profile) {
-        AuthManager.getInstance().updateProfile(userId, profile);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("AuthFacade.updateProfile")) {
+            AuthManager.getInstance().updateProfile(userId, profile);
+        }
     }
 
     /**
      * Registers a new user
      */
     public User register(String username, String password) {
-        return AuthManager.getInstance().register(username, password);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("AuthFacade.register")) {
+            return AuthManager.getInstance().register(username, password);
+        }
     }
 
     /**
      * Gets the current session
      */
     public Session getCurrentSession() {
-        return currentSession;
+        try (FacadeLock.Held held = lock.hold()) {
+            return currentSession;
+        }
     }
 
     /**
      * Sets the current session
      */
     public void setCurrentSession(Session session) {
-        this.currentSession = session;
+        try (FacadeLock.Held held = lock.hold()) {
+            this.currentSession = session;
+        }
     }
 
     /**
      * Checks if a user is currently authenticated
      */
     public boolean isAuthenticated() {
-        return AuthManager.getInstance().isAuthenticated();
+        try (FacadeLock.Held held = lock.hold()) {
+            return AuthManager.getInstance().isAuthenticated();
+        }
     }
 
     /**
      * Gets the currently connected user
      */
     public User getConnectedUser() {
-        return AuthManager.getInstance().getConnectedUser();
+        try (FacadeLock.Held held = lock.hold()) {
+            return AuthManager.getInstance().getConnectedUser();
+        }
     }
 }
@@ -1,10 +1,13 @@
 package fr.opal.facade;
 
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
 import fr.opal.service.ChannelManager;
 import fr.opal.type.Channel;
 import fr.opal.type.Message;
 import fr.opal.type.User;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -17,6 +20,7 @@ public class ChannelFacade {
 
     private static ChannelFacade instance;
     private ChannelManager manager;
+    private final FacadeLock lock = new FacadeLock();
 
     /**
      * Private constructor for singleton pattern
@@ -35,6 +39,13 @@ public class ChannelFacade {
         return instance;
     }
 
+    /**
+     * Lock serializing this facade's calls, also held by its async variant
+     */
+    FacadeLock lock() {
+        return lock;
+    }
+
     // ==================== Authentication Delegation ====================
 
     /**
@@ -59,21 +70,30 @@ public class ChannelFacade {
      * @return the channel ID
      */
     public int createChannel() {
-        return manager.createChannel();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.createChannel")) {
+            return manager.createChannel();
+        }
     }
 
     /**
      * Gets a channel by ID
      */
     public Channel getChannel(int channelId) {
-        return manager.getChannel(channelId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getChannel")) {
+            return manager.getChannel(channelId);
+        }
     }
 
     /**
      * Deletes a channel
      */
     public void deleteChannel(int channelId) {
-        manager.deleteChannel(channelId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.deleteChannel")) {
+            manager.deleteChannel(channelId);
+        }
     }
 
     // ==================== Message Operations ====================
@@ -83,7 +103,8 @@ public class ChannelFacade {
      * @throws InvalidChannelException if channel is not valid
      */
     public List<Message> getMessages(int channelId) throws InvalidChannelException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getMessages")) {
             return manager.getMessagesForChannel(channelId);
         } catch (IllegalArgumentException e) {
             throw new InvalidChannelException(e.getMessage());
@@ -95,13 +116,42 @@ public class ChannelFacade {
      * @throws InvalidChannelException if channel is not valid
      */
     public List<Message> getRecentMessages(int channelId, int limit) throws InvalidChannelException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getRecentMessages")) {
             return manager.getRecentMessages(channelId, limit);
         } catch (IllegalArgumentException e) {
             throw new InvalidChannelException(e.getMessage());
         }
     }
 
+    /**
+     * Gets the page of messages older than the (created_at, id) cursor, oldest first
+     * Pass null and 0 as cursor to get the most recent page
+     * @throws InvalidChannelException if channel or page is not valid
+     */
+    public List<Message> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit) throws InvalidChannelException {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getMessagesBefore")) {
+            return manager.getMessagesBefore(channelId, beforeCreatedAt, beforeMessageId, limit);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidChannelException(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the page of messages newer than the (created_at, id) cursor, oldest first
+     * Pass null and 0 as cursor to get the oldest page
+     * @throws InvalidChannelException if channel or page is not valid
+     */
+    public List<Message> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit) throws InvalidChannelException {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getMessagesAfter")) {
+            return manager.getMessagesAfter(channelId, afterCreatedAt, afterMessageId, limit);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidChannelException(e.getMessage());
+        }
+    }
+
     /**
      * Sends a message to a channel
      * Delegates all validation and business logic to the manager
@@ -111,7 +161,8 @@ public class ChannelFacade {
      */
     public Message sendMessage(int channelId, User sender, String content) 
             throws MessageException, AuthenticationException, InvalidChannelException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.sendMessage")) {
             return manager.sendMessageWithFullValidation(channelId, sender, content);
         } catch (ChannelManager.MessageValidationException e) {
             throw new MessageException(e.getMessage());
@@ -126,7 +177,10 @@ public class ChannelFacade {
      * Deletes a message
      */
     public void deleteMessage(long messageId) {
-        manager.deleteMessage(messageId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.deleteMessage")) {
+            manager.deleteMessage(messageId);
+        }
     }
 
     /**
@@ -134,7 +188,8 @@ public class ChannelFacade {
      * @throws MessageException if update fails
      */
     public void updateMessage(long messageId, String newContent) throws MessageException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.updateMessage")) {
             manager.updateMessage(messageId, newContent);
         } catch (ChannelManager.MessageValidationException e) {
             throw new MessageException(e.getMessage());
@@ -146,7 +201,8 @@ public class ChannelFacade {
      * Delegates validation to manager
      */
     public int getMessageCount(int channelId) throws InvalidChannelException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("ChannelFacade.getMessageCount")) {
             return manager.getMessageCountWithValidation(channelId);
         } catch (ChannelManager.InvalidChannelException e) {
             throw new InvalidChannelException(e.getMessage());
@@ -1,5 +1,7 @@
 package fr.opal.facade;
 
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
 import fr.opal.type.Entry;
 import fr.opal.type.EPermission;
 import fr.opal.type.User;
@@ -20,6 +22,7 @@ public class EntryFacade {
 
     private static EntryFacade instance;
     private EntryManager manager;
+    private final FacadeLock lock = new FacadeLock();
 
     /**
      * Private constructor for singleton pattern
@@ -38,20 +41,31 @@ public class EntryFacade {
         return instance;
     }
 
+    /**
+     * Lock serializing this facade's calls, also held by its async variant
+     */
+    FacadeLock lock() {
+        return lock;
+    }
+
     // ==================== Entry State Management ====================
 
     /**
      * Gets the currently selected entry
      */
     public Entry getCurrentEntry() {
-        return manager.getCurrentEntry();
+        try (FacadeLock.Held held = lock.hold()) {
+            return manager.getCurrentEntry();
+        }
     }
 
     /**
      * Sets the currently selected entry
      */
     public void setCurrentEntry(Entry entry) {
-        manager.setCurrentEntry(entry);
+        try (FacadeLock.Held held = lock.hold()) {
+            manager.setCurrentEntry(entry);
+        }
     }
 
     // ==================== Entry Loading ====================
@@ -61,7 +75,10 @@ public class EntryFacade {
      * Returns an EntryContextDTO containing target entry, parent, and children
      */
     public EntryContextDTO loadEntry(int id) {
-        return manager.getEntry(id);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.loadEntry")) {
+            return manager.getEntry(id);
+        }
     }
 
     /**
@@ -69,7 +86,8 @@ public class EntryFacade {
      * @throws AccessDeniedException if user does not have access
      */
     public EntryContextDTO loadEntryWithAccessCheck(int entryId, User user) throws AccessDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.loadEntryWithAccessCheck")) {
             manager.setCurrentUser(user);
             return manager.getEntryWithAccessCheck(entryId);
         } catch (EntryManager.PermissionException e) {
@@ -82,7 +100,10 @@ public class EntryFacade {
      * Used during controller initialization
      */
     public EntryContextDTO loadInitialProject(String projectName) {
-        return manager.loadProjectByName(projectName);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.loadInitialProject")) {
+            return manager.loadProjectByName(projectName);
+        }
     }
 
     // ==================== Entry UI State ====================
@@ -92,7 +113,10 @@ public class EntryFacade {
      * Used by Controller to determine which UI elements to enable/disable
      */
     public EntryUIState getEntryUIState(Entry entry, User user) {
-        return manager.getUIStateForEntry(entry, user);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.getEntryUIState")) {
+            return manager.getUIStateForEntry(entry, user);
+        }
     }
 
     /**
@@ -120,7 +144,10 @@ public class EntryFacade {
      * Saves an entry to the database
      */
     public void saveEntry(Entry entry) {
-        manager.persistEntry(entry);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.saveEntry")) {
+            manager.persistEntry(entry);
+        }
     }
 
     /**
@@ -129,7 +156,8 @@ public class EntryFacade {
      */
     public void updateEntryContent(int entryId, String title, String content, User user) 
             throws PermissionDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.updateEntryContent")) {
             manager.setCurrentUser(user);
             manager.updateEntryContent(entryId, title, content);
         } catch (EntryManager.PermissionException e) {
@@ -142,23 +170,32 @@ public class EntryFacade {
      */
     public Entry createChildEntry(Entry parent, String title, String content, User author) 
             throws Entry.CircularDependencyException {
-        Entry newEntry = manager.createNewEntry(title, content, author);
-        manager.attachChildToParent(parent, newEntry);
-        return newEntry;
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.createChildEntry")) {
+            Entry newEntry = manager.createNewEntry(title, content, author);
+            manager.attachChildToParent(parent, newEntry);
+            return newEntry;
+        }
     }
 
     /**
      * Creates a new standalone entry
      */
     public Entry createEntry(String title, String content, User author) {
-        return manager.createNewEntry(title, content, author);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.createEntry")) {
+            return manager.createNewEntry(title, content, author);
+        }
     }
 
     /**
      * Deletes an entry
      */
     public void deleteEntry(int id) {
-        manager.removeEntry(id);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.deleteEntry")) {
+            manager.removeEntry(id);
+        }
     }
 
     // ==================== Entry Navigation ====================
@@ -167,14 +204,20 @@ public class EntryFacade {
      * Gets the root entries (project roots)
      */
     public List<Entry> getRootEntries() {
-        return manager.getAllRootEntries();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.getRootEntries")) {
+            return manager.getAllRootEntries();
+        }
     }
 
     /**
      * Gets child entries of a parent
      */
     public List<Entry> getChildEntries(int parentId) {
-        return manager.getChildrenOfEntry(parentId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.getChildEntries")) {
+            return manager.getChildrenOfEntry(parentId);
+        }
     }
 
     /**
@@ -182,7 +225,8 @@ public class EntryFacade {
      * @throws PermissionDeniedException if user lacks permission
      */
     public EntryContextDTO navigateToParent(User user) throws PermissionDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.navigateToParent")) {
             manager.setCurrentUser(user);
             return manager.navigateToParent();
         } catch (EntryManager.PermissionException e) {
@@ -198,7 +242,8 @@ public class EntryFacade {
      * @throws PermissionDeniedException if user lacks COMMENTOR permission
      */
     public void addComment(Entry entry, User user, String commentText) throws PermissionDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.addComment")) {
             // Delegate all message creation to manager - no Message instantiation here
             manager.setCurrentUser(user);
             manager.addComment(entry.getId(), user, commentText);
@@ -219,7 +264,8 @@ public class EntryFacade {
      * @throws PermissionDeniedException if user lacks EDITOR permission
      */
     public void removeMessage(Entry entry, Message message, User user) throws PermissionDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.removeMessage")) {
             manager.setCurrentUser(user);
             manager.deleteMessage(entry, message);
             
@@ -242,7 +288,8 @@ public class EntryFacade {
      */
     public void setUserPermission(Entry entry, String username, EPermission permission, User currentUser) 
             throws PermissionDeniedException {
-        try {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.setUserPermission")) {
             manager.setCurrentUser(currentUser);
             manager.setUserPermissionByUsername(entry, username, permission);
         } catch (EntryManager.PermissionException e) {
@@ -256,21 +303,30 @@ public class EntryFacade {
      * Updates entry parent relationship
      */
     public void updateParentEntry(Entry entry, Entry newParent) throws Entry.CircularDependencyException {
-        manager.updateEntryParent(entry, newParent);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.updateParentEntry")) {
+            manager.updateEntryParent(entry, newParent);
+        }
     }
 
     /**
      * Adds a child entry
      */
     public void addChildEntry(Entry parent, Entry child) throws Entry.CircularDependencyException {
-        manager.attachChildToParent(parent, child);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.addChildEntry")) {
+            manager.attachChildToParent(parent, child);
+        }
     }
 
     /**
      * Removes a child entry
      */
     public void removeChildEntry(Entry parent, Entry child) {
-        manager.detachChildFromParent(parent, child);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.removeChildEntry")) {
+            manager.detachChildFromParent(parent, child);
+        }
     }
 
     // ==================== Import/Export ====================
@@ -281,7 +337,10 @@ public class EntryFacade {
      * @throws IllegalArgumentException for unsupported file formats
      */
     public Entry importEntry(File file) throws Exception {
-        return manager.importEntryFromFile(file);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.importEntry")) {
+            return manager.importEntryFromFile(file);
+        }
     }
 
     /**
@@ -290,7 +349,10 @@ public class EntryFacade {
      * @throws IllegalArgumentException for unsupported file formats
      */
     public void exportEntry(Entry entry, File file) throws Exception {
-        manager.exportEntryToFile(entry, file);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("EntryFacade.exportEntry")) {
+            manager.exportEntryToFile(entry, file);
+        }
     }
 
     // ==================== Exception Classes ====================
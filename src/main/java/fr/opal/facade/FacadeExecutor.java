@@ -0,0 +1,89 @@
+package fr.opal.facade;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs blocking facade calls on virtual threads for the async facades.
+ * Futures are completed on the JavaFX thread, so stages chained with thenAccept/exceptionally
+ * can update the UI directly. Cancelling a future skips the call if it has not started yet
+ * and drops its result otherwise. A running call is never interrupted: on a virtual thread an
+ * interrupt during socket I/O closes the socket of the pooled connection it is using.
+ */
+public final class FacadeExecutor {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("opal-facade-", 0).factory());
+
+    /**
+     * Blocking call returning a result, may throw the facade's checked exceptions
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Blocking call without a result, may throw the facade's checked exceptions
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private FacadeExecutor() {
+    }
+
+    /**
+     * Runs the call on a virtual thread while holding the facade's lock.
+     * Managers keep per-session state and are not thread-safe, so each async facade
+     * passes the lock of the facade it wraps: its calls run one at a time, off the FX thread,
+     * and never alongside a synchronous call to the same facade.
+     * A failure completes the future exceptionally with the original exception.
+     */
+    static <T> CompletableFuture<T> supply(FacadeLock lock, Call<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try (FacadeLock.Held held = lock.hold()) {
+                if (result.isDone()) {
+                    return; // Cancelled before it started
+                }
+                T value = call.call();
+                // A no-op if the future was cancelled meanwhile
+                deliver(() -> result.complete(value));
+            } catch (Throwable e) {
+                deliver(() -> result.completeExceptionally(e));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs the action on a virtual thread while holding the lock
+     */
+    static CompletableFuture<Void> run(FacadeLock lock, Action action) {
+        return supply(lock, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Hands a completion to the FX thread, or runs it in place when no FX toolkit is running
+     */
+    private static void deliver(Runnable completion) {
+        if (Platform.isFxApplicationThread()) {
+            completion.run();
+            return;
+        }
+        try {
+            Platform.runLater(completion);
+        } catch (IllegalStateException e) {
+            // Toolkit not initialized (batch tools, benchmarks)
+            completion.run();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package fr.opal.facade;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock of a facade, shared with its async variant.
+ * Managers keep per-session state and are not thread-safe, so a facade's calls run one at a time
+ * whether they come from the FX thread or from FacadeExecutor's virtual threads.
+ * A synchronous call waits for any async call in flight, so a view that runs async calls on a facade
+ * must make its other calls to it through the async facade as well, never from the FX thread.
+ * Reentrant, as the async facades hold it around the synchronous call.
+ */
+final class FacadeLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The lock held for a try-with-resources block
+     */
+    @FunctionalInterface
+    interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    Held hold() {
+        lock.lock();
+        return lock::unlock;
+    }
+}
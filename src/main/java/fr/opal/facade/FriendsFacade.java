@@ -1,9 +1,14 @@
 package fr.opal.facade;
 
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
 import fr.opal.manager.FriendsManager;
+import fr.opal.type.RelationshipStatus;
 import fr.opal.type.User;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Facade class that provides a simplified interface for friend-related operations.
@@ -12,6 +17,7 @@ public class FriendsFacade {
 
     private static FriendsFacade instance;
     private final FriendsManager friendsManager;
+    private final FacadeLock lock = new FacadeLock();
 
     private FriendsFacade() {
         this.friendsManager = FriendsManager.getInstance();
@@ -29,13 +35,23 @@ public class FriendsFacade {
         return instance;
     }
 
+    /**
+     * Lock serializing this facade's calls, also held by its async variant
+     */
+    FacadeLock lock() {
+        return lock;
+    }
+
     /**
      * Initializes friend data for a user.
      *
      * @param userId The ID of the user
      */
     public void loadUserData(int userId) {
-        friendsManager.loadUserData(userId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.loadUserData")) {
+            friendsManager.loadUserData(userId);
+        }
     }
 
     /**
@@ -44,7 +60,10 @@ public class FriendsFacade {
      * @return ArrayList of User objects
      */
     public ArrayList<User> getFriendList() {
-        return friendsManager.getFriendList();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getFriendList")) {
+            return friendsManager.getFriendList();
+        }
     }
 
     /**
@@ -53,7 +72,10 @@ public class FriendsFacade {
      * @return ArrayList of User objects
      */
     public ArrayList<User> getFollowedUsers() {
-        return friendsManager.getFollowedUsers();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getFollowedUsers")) {
+            return friendsManager.getFollowedUsers();
+        }
     }
 
     /**
@@ -62,7 +84,10 @@ public class FriendsFacade {
      * @return ArrayList of User objects
      */
     public ArrayList<User> getBlockedUsers() {
-        return friendsManager.getBlockedUsers();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getBlockedUsers")) {
+            return friendsManager.getBlockedUsers();
+        }
     }
 
     /**
@@ -71,7 +96,10 @@ public class FriendsFacade {
      * @return ArrayList of User objects
      */
     public ArrayList<User> getPendingFriendRequests() {
-        return friendsManager.getPendingFriendRequests();
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getPendingFriendRequests")) {
+            return friendsManager.getPendingFriendRequests();
+        }
     }
 
     /**
@@ -82,7 +110,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean sendFriendRequest(int fromUserId, int toUserId) {
-        return friendsManager.addFriend(fromUserId, toUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.sendFriendRequest")) {
+            return friendsManager.addFriend(fromUserId, toUserId);
+        }
     }
 
     /**
@@ -93,7 +124,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean acceptFriendRequest(int userId, int requesterId) {
-        return friendsManager.acceptFriendRequest(userId, requesterId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.acceptFriendRequest")) {
+            return friendsManager.acceptFriendRequest(userId, requesterId);
+        }
     }
 
     /**
@@ -104,7 +138,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean declineFriendRequest(int userId, int requesterId) {
-        return friendsManager.declineFriendRequest(userId, requesterId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.declineFriendRequest")) {
+            return friendsManager.declineFriendRequest(userId, requesterId);
+        }
     }
 
     /**
@@ -115,7 +152,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean removeFriend(int userId, int friendId) {
-        return friendsManager.removeFriend(userId, friendId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.removeFriend")) {
+            return friendsManager.removeFriend(userId, friendId);
+        }
     }
 
     /**
@@ -126,7 +166,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean follow(int followerId, int followedId) {
-        return friendsManager.follow(followerId, followedId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.follow")) {
+            return friendsManager.follow(followerId, followedId);
+        }
     }
 
     /**
@@ -137,7 +180,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean unfollow(int followerId, int followedId) {
-        return friendsManager.unfollow(followerId, followedId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.unfollow")) {
+            return friendsManager.unfollow(followerId, followedId);
+        }
     }
 
     /**
@@ -148,7 +194,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean block(int userId, int blockedUserId) {
-        return friendsManager.block(userId, blockedUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.block")) {
+            return friendsManager.block(userId, blockedUserId);
+        }
     }
 
     /**
@@ -159,7 +208,10 @@ public class FriendsFacade {
      * @return true if successful
      */
     public boolean unblock(int userId, int blockedUserId) {
-        return friendsManager.unblock(userId, blockedUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.unblock")) {
+            return friendsManager.unblock(userId, blockedUserId);
+        }
     }
 
     /**
@@ -169,7 +221,10 @@ public class FriendsFacade {
      * @return The friend count
      */
     public int getFriendCount(int userId) {
-        return friendsManager.getFriendCount(userId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getFriendCount")) {
+            return friendsManager.getFriendCount(userId);
+        }
     }
 
     /**
@@ -179,17 +234,23 @@ public class FriendsFacade {
      * @return The follower count
      */
     public int getFollowerCount(int userId) {
-        return friendsManager.getFollowerCount(userId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getFollowerCount")) {
+            return friendsManager.getFollowerCount(userId);
+        }
     }
 
     /**
-     * Searches for users by username.
+     * Searches for users by username, best matches first.
      *
      * @param query The search query
-     * @return ArrayList of matching users
+     * @return ArrayList of at most 50 matching users
      */
     public ArrayList<User> searchUsers(String query) {
-        return friendsManager.searchUsers(query);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.searchUsers")) {
+            return friendsManager.searchUsers(query);
+        }
     }
 
     /**
@@ -200,7 +261,10 @@ public class FriendsFacade {
      * @return true if blocked
      */
     public boolean isBlocked(int userId, int otherUserId) {
-        return friendsManager.isBlocked(userId, otherUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.isBlocked")) {
+            return friendsManager.isBlocked(userId, otherUserId);
+        }
     }
 
     /**
@@ -211,7 +275,10 @@ public class FriendsFacade {
      * @return true if friends
      */
     public boolean isFriend(int userId, int otherUserId) {
-        return friendsManager.isFriend(userId, otherUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.isFriend")) {
+            return friendsManager.isFriend(userId, otherUserId);
+        }
     }
 
     /**
@@ -222,7 +289,10 @@ public class FriendsFacade {
      * @return true if following
      */
     public boolean isFollowing(int followerId, int followedId) {
-        return friendsManager.isFollowing(followerId, followedId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.isFollowing")) {
+            return friendsManager.isFollowing(followerId, followedId);
+        }
     }
 
     /**
@@ -233,7 +303,24 @@ public class FriendsFacade {
      * @return true if pending
      */
     public boolean hasPendingFriendRequest(int fromUserId, int toUserId) {
-        return friendsManager.hasPendingFriendRequest(fromUserId, toUserId);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.hasPendingFriendRequest")) {
+            return friendsManager.hasPendingFriendRequest(fromUserId, toUserId);
+        }
+    }
+
+    /**
+     * Gets the relationship of several users to a viewer, with their counters, in one lookup.
+     *
+     * @param viewerId The viewing user's ID
+     * @param userIds The IDs of the users to describe
+     * @return Status per user ID, in the order given
+     */
+    public Map<Integer, RelationshipStatus> getRelationshipStatuses(int viewerId, List<Integer> userIds) {
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getRelationshipStatuses")) {
+            return friendsManager.getRelationshipStatuses(viewerId, userIds);
+        }
     }
 
     /**
@@ -244,6 +331,9 @@ public class FriendsFacade {
      * @return The channel ID for DMs, or 0 if friendship doesn't exist or isn't accepted
      */
     public int getChannelIdForFriendship(int user1Id, int user2Id) {
-        return friendsManager.getChannelIdForFriendship(user1Id, user2Id);
+        try (FacadeLock.Held held = lock.hold();
+             QueryOperation operation = QueryMetrics.operation("FriendsFacade.getChannelIdForFriendship")) {
+            return friendsManager.getChannelIdForFriendship(user1Id, user2Id);
+        }
     }
 }
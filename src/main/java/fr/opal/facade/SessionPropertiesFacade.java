@@ -1,5 +1,7 @@
 package fr.opal.facade;
 
+import fr.opal.db.QueryMetrics;
+import fr.opal.db.QueryOperation;
 import fr.opal.manager.SessionManager;
 import fr.opal.type.SessionSettings;
 import fr.opal.type.StyleColor;
@@ -37,7 +39,9 @@ public class SessionPropertiesFacade {
      * @param userId The user ID
      */
     public void loadSettings(int userId) {
-        SessionManager.getInstance().loadSettingsForUser(userId);
+        try (QueryOperation operation = QueryMetrics.operation("SessionPropertiesFacade.loadSettings")) {
+            SessionManager.getInstance().loadSettingsForUser(userId);
+        }
     }
 
     /**
@@ -53,7 +57,9 @@ public class SessionPropertiesFacade {
      * @param fontSize The font size to save
      */
     public void saveFontSize(int fontSize) {
-        SessionManager.getInstance().saveFontSize(fontSize);
+        try (QueryOperation operation = QueryMetrics.operation("SessionPropertiesFacade.saveFontSize")) {
+            SessionManager.getInstance().saveFontSize(fontSize);
+        }
     }
 
     /**
@@ -61,7 +67,9 @@ public class SessionPropertiesFacade {
      * @param stylePalette The palette to save
      */
     public void saveStylePalette(StylePalette stylePalette) {
-        SessionManager.getInstance().saveStylePalette(stylePalette);
+        try (QueryOperation operation = QueryMetrics.operation("SessionPropertiesFacade.saveStylePalette")) {
+            SessionManager.getInstance().saveStylePalette(stylePalette);
+        }
     }
 
     /**
@@ -69,7 +77,9 @@ public class SessionPropertiesFacade {
      * @param accentColor The accent color to save
      */
     public void saveAccentColor(StyleColor accentColor) {
-        SessionManager.getInstance().saveAccentColor(accentColor);
+        try (QueryOperation operation = QueryMetrics.operation("SessionPropertiesFacade.saveAccentColor")) {
+            SessionManager.getInstance().saveAccentColor(accentColor);
+        }
     }
 
     /**
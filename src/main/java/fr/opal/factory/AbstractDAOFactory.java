@@ -5,9 +5,15 @@ import fr.opal.dao.EntryDAO;
 import fr.opal.dao.FriendsDAO;
 import fr.opal.dao.SessionDAO;
 import fr.opal.dao.UserDAO;
+import fr.opal.db.UnitOfWork;
+import fr.opal.exception.DataAccessException;
 import fr.opal.type.Entry;
 import fr.opal.type.User;
 
+import java.sql.SQLException;
+import java.util.Locale;
+import javax.sql.DataSource;
+
 /**
  * Abstract DAO Factory.
  * Centralizes the creation of all DAOs.
@@ -21,26 +27,102 @@ public abstract class AbstractDAOFactory
     public enum FactoryType
     {
         MYSQL,
+        MEMORY,
+        EMBEDDED,
+        POSTGRES,
         // XML, JSON, etc. can be added here
     }
 
+    /**
+     * System property selecting the factory at startup, e.g. -Dopal.dao.factory=EMBEDDED
+     */
+    public static final String FACTORY_PROPERTY = "opal.dao.factory";
+
     private static AbstractDAOFactory instance;
+    private static FactoryType type;
 
     /**
      * Returns the singleton instance of the DAO Factory.
-     * Starts with a default MySQL factory.
+     * Starts with the factory named by the opal.dao.factory property, MySQL by default.
      * @return The AbstractDAOFactory instance
      */
     public static synchronized AbstractDAOFactory getFactory()
     {
         if (instance == null)
         {
-            // Default to MySQL
-            instance = new MySQLDAOFactory();
+            instance = create(getFactoryType());
         }
         return instance;
     }
 
+    /**
+     * Selects the factory type. Must be called before the first getFactory() call.
+     * @param factoryType The factory type to use
+     */
+    public static synchronized void setFactoryType(FactoryType factoryType)
+    {
+        if (instance != null && type != factoryType)
+        {
+            throw new IllegalStateException("DAO factory already created as " + type);
+        }
+        type = factoryType;
+    }
+
+    /**
+     * Returns the selected factory type
+     * @return The factory type, read from the opal.dao.factory property if none was set
+     */
+    public static synchronized FactoryType getFactoryType()
+    {
+        if (type == null)
+        {
+            String configured = System.getProperty(FACTORY_PROPERTY, FactoryType.MYSQL.name());
+            type = FactoryType.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        }
+        return type;
+    }
+
+    private static AbstractDAOFactory create(FactoryType factoryType)
+    {
+        switch (factoryType)
+        {
+            case MEMORY:
+                return new InMemoryDAOFactory();
+            case EMBEDDED:
+                return new EmbeddedDAOFactory();
+            case POSTGRES:
+                return new PostgresDAOFactory();
+            case MYSQL:
+            default:
+                return new MySQLDAOFactory();
+        }
+    }
+
+    /**
+     * Runs the DAO calls made by the work on the current thread as one transaction.
+     * Backends without transactions simply run it.
+     * @param work DAO calls to commit together
+     */
+    public void inTransaction(Runnable work)
+    {
+        work.run();
+    }
+
+    /**
+     * inTransaction implementation for the factories backed by a connection pool
+     */
+    protected static void inTransaction(DataSource dataSource, Runnable work)
+    {
+        try
+        {
+            UnitOfWork.run(dataSource, conn -> work.run());
+        }
+        catch (SQLException e)
+        {
+            throw new DataAccessException("Error committing transaction", e);
+        }
+    }
+
     public abstract UserDAO createUserDAO();
     public abstract SessionDAO createSessionDAO();
     public abstract FriendsDAO createFriendsDAO();
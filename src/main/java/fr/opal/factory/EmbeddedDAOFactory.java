@@ -0,0 +1,62 @@
+package fr.opal.factory;
+
+import fr.opal.dao.*;
+import fr.opal.db.EmbeddedDatabaseManager;
+import fr.opal.type.Entry;
+import fr.opal.type.User;
+import javax.sql.DataSource;
+
+/**
+ * Embedded database implementation of the DAO Factory.
+ * Runs the MySQL DAOs against a local H2 file in MySQL compatibility mode,
+ * for single-user and offline deployments without a database server.
+ */
+public class EmbeddedDAOFactory extends AbstractDAOFactory
+{
+    private final DataSource dataSource;
+
+    public EmbeddedDAOFactory()
+    {
+        this.dataSource = EmbeddedDatabaseManager.getInstance().getDataSource();
+    }
+
+    @Override public void inTransaction(Runnable work)
+    {
+        inTransaction(dataSource, work);
+    }
+
+    @Override public UserDAO createUserDAO()
+    {
+        return new CachingUserDAO(new MySQLUserDAO(dataSource));
+    }
+
+    @Override public SessionDAO createSessionDAO()
+    {
+        return new MySQLSessionDAO(dataSource);
+    }
+
+    @Override public FriendsDAO createFriendsDAO()
+    {
+        return new MySQLFriendsDAO(dataSource);
+    }
+
+    @Override public EntryDAO createEntryDAO()
+    {
+        return new MySQLEntryDAO(dataSource);
+    }
+
+    @Override public Entry createEntry(String title, String content, User author)
+    {
+        return new Entry(title, content, author);
+    }
+
+    @Override public Entry createEntry(int id, String title, String content, User author)
+    {
+        return new Entry(id, title, content, author);
+    }
+
+    @Override public ChannelDAO createChannelDAO()
+    {
+        return new MySQLChannelDAO(dataSource);
+    }
+}
@@ -0,0 +1,68 @@
+package fr.opal.factory;
+
+import fr.opal.dao.*;
+import fr.opal.type.Entry;
+import fr.opal.type.User;
+
+/**
+ * In-memory implementation of the DAO Factory.
+ * All DAOs share one InMemoryDatabase, so data lives as long as the factory.
+ * Used to run without a MySQL server (demos, benchmarks, development).
+ */
+public class InMemoryDAOFactory extends AbstractDAOFactory
+{
+    private final InMemoryDatabase database;
+
+    public InMemoryDAOFactory()
+    {
+        this(new InMemoryDatabase());
+    }
+
+    public InMemoryDAOFactory(InMemoryDatabase database)
+    {
+        this.database = database;
+    }
+
+    /**
+     * Returns the tables shared by this factory's DAOs
+     */
+    public InMemoryDatabase getDatabase()
+    {
+        return database;
+    }
+
+    @Override public UserDAO createUserDAO()
+    {
+        return new InMemoryUserDAO(database);
+    }
+
+    @Override public SessionDAO createSessionDAO()
+    {
+        return new InMemorySessionDAO(database);
+    }
+
+    @Override public FriendsDAO createFriendsDAO()
+    {
+        return new InMemoryFriendsDAO(database);
+    }
+
+    @Override public EntryDAO createEntryDAO()
+    {
+        return new InMemoryEntryDAO(database);
+    }
+
+    @Override public Entry createEntry(String title, String content, User author)
+    {
+        return new Entry(title, content, author);
+    }
+
+    @Override public Entry createEntry(int id, String title, String content, User author)
+    {
+        return new Entry(id, title, content, author);
+    }
+
+    @Override public ChannelDAO createChannelDAO()
+    {
+        return new InMemoryChannelDAO(database);
+    }
+}
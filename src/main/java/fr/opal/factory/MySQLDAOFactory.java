@@ -4,39 +4,43 @@ import fr.opal.dao.*;
 import fr.opal.db.DatabaseManager;
 import fr.opal.type.Entry;
 import fr.opal.type.User;
-import java.sql.Connection;
-import java.util.logging.Logger;
+import javax.sql.DataSource;
 
 /**
  * MySQL implementation of the DAO Factory.
  */
 public class MySQLDAOFactory extends AbstractDAOFactory
 {
-    private final Connection connection;
+    private final DataSource dataSource;
 
     public MySQLDAOFactory()
     {
-        this.connection = DatabaseManager.getInstance().getConnection();
+        this.dataSource = DatabaseManager.getInstance().getDataSource();
+    }
+
+    @Override public void inTransaction(Runnable work)
+    {
+        inTransaction(dataSource, work);
     }
 
     @Override public UserDAO createUserDAO()
     {
-        return new MySQLUserDAO(connection);
+        return new CachingUserDAO(new MySQLUserDAO(dataSource));
     }
 
     @Override public SessionDAO createSessionDAO()
     {
-        return new MySQLSessionDAO(connection);
+        return new MySQLSessionDAO(dataSource);
     }
 
     @Override public FriendsDAO createFriendsDAO()
     {
-        return new MySQLFriendsDAO(connection);
+        return new MySQLFriendsDAO(dataSource);
     }
 
     @Override public EntryDAO createEntryDAO()
     {
-        return new MySQLEntryDAO(connection);
+        return new MySQLEntryDAO(dataSource);
     }
 
     @Override public Entry createEntry(String title, String content, User author)
@@ -51,6 +55,6 @@ public class MySQLDAOFactory extends AbstractDAOFactory
 
     @Override public ChannelDAO createChannelDAO()
     {
-        return new MySQLChannelDAO(connection);
+        return new MySQLChannelDAO(dataSource);
     }
 }
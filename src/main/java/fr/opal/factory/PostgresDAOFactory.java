@@ -0,0 +1,61 @@
+package fr.opal.factory;
+
+import fr.opal.dao.*;
+import fr.opal.db.PostgresDatabaseManager;
+import fr.opal.type.Entry;
+import fr.opal.type.User;
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL implementation of the DAO Factory.
+ * Connects to the database provisioned by docker-compose.yml (see PostgresDatabaseManager).
+ */
+public class PostgresDAOFactory extends AbstractDAOFactory
+{
+    private final DataSource dataSource;
+
+    public PostgresDAOFactory()
+    {
+        this.dataSource = PostgresDatabaseManager.getInstance().getDataSource();
+    }
+
+    @Override public void inTransaction(Runnable work)
+    {
+        inTransaction(dataSource, work);
+    }
+
+    @Override public UserDAO createUserDAO()
+    {
+        return new CachingUserDAO(new PostgresUserDAO(dataSource));
+    }
+
+    @Override public SessionDAO createSessionDAO()
+    {
+        return new PostgresSessionDAO(dataSource);
+    }
+
+    @Override public FriendsDAO createFriendsDAO()
+    {
+        return new PostgresFriendsDAO(dataSource);
+    }
+
+    @Override public EntryDAO createEntryDAO()
+    {
+        return new PostgresEntryDAO(dataSource);
+    }
+
+    @Override public Entry createEntry(String title, String content, User author)
+    {
+        return new Entry(title, content, author);
+    }
+
+    @Override public Entry createEntry(int id, String title, String content, User author)
+    {
+        return new Entry(id, title, content, author);
+    }
+
+    @Override public ChannelDAO createChannelDAO()
+    {
+        return new PostgresChannelDAO(dataSource);
+    }
+}
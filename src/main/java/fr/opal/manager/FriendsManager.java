@@ -2,9 +2,13 @@ package fr.opal.manager;
 
 import fr.opal.dao.FriendsDAO;
 import fr.opal.factory.AbstractDAOFactory;
+import fr.opal.service.UserSearchIndex;
+import fr.opal.type.RelationshipStatus;
 import fr.opal.type.User;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -14,6 +18,7 @@ public class FriendsManager {
 
     private static FriendsManager instance;
     private final FriendsDAO friendsDAO;
+    private final UserSearchIndex searchIndex;
     private ArrayList<User> friendList;
     private ArrayList<User> followedUsers;
     private ArrayList<User> blockedUsers;
@@ -22,6 +27,7 @@ public class FriendsManager {
 
     private FriendsManager() {
         this.friendsDAO = AbstractDAOFactory.getFactory().createFriendsDAO();
+        this.searchIndex = new UserSearchIndex(AbstractDAOFactory.getFactory().createUserDAO());
         this.friendList = new ArrayList<>();
         this.followedUsers = new ArrayList<>();
         this.blockedUsers = new ArrayList<>();
@@ -195,13 +201,14 @@ public class FriendsManager {
     }
 
     /**
-     * Searches for users by username.
+     * Searches for users by username, served by the in-memory search index.
+     * Exact and prefix matches come before other substring matches.
      *
      * @param query The search query
-     * @return ArrayList of User objects matching the query
+     * @return ArrayList of at most 50 User objects matching the query, best first
      */
     public ArrayList<User> searchUsers(String query) {
-        return friendsDAO.searchUsers(query);
+        return searchIndex.search(query, UserSearchIndex.DEFAULT_LIMIT);
     }
 
     /**
@@ -248,6 +255,17 @@ public class FriendsManager {
         return friendsDAO.hasPendingFriendRequest(fromUserId, toUserId);
     }
 
+    /**
+     * Gets the relationship of several users to a viewer, with their counters.
+     *
+     * @param viewerId The ID of the viewing user
+     * @param userIds The IDs of the users to describe
+     * @return Status per user ID, in the order given
+     */
+    public Map<Integer, RelationshipStatus> getRelationshipStatuses(int viewerId, List<Integer> userIds) {
+        return friendsDAO.getRelationshipStatuses(viewerId, userIds);
+    }
+
     /**
      * Accepts a friend request.
      *
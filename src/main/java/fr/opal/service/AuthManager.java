@@ -66,6 +66,8 @@ public class AuthManager {
         String sessionId = UUID.randomUUID().toString();
         Session session = new Session(sessionId, new Date(), username, connectedUser.getId());
         activeSessions.put(sessionId, session);
+        // Results resolved for the previous user are of no use to this session
+        PermissionResolver.getInstance().invalidateAll();
         return session;
     }
 
@@ -77,6 +79,7 @@ public class AuthManager {
             activeSessions.remove(sessionId);
             connectedUser = null;
             connectedUsers.clear();
+            PermissionResolver.getInstance().invalidateAll();
         }
     }
 
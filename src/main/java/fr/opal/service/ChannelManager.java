@@ -6,7 +6,9 @@ import fr.opal.type.Channel;
 import fr.opal.type.Message;
 import fr.opal.type.User;
 
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Channel Manager Service
@@ -76,6 +78,15 @@ public class ChannelManager {
         return channelDAO.getMessagesForChannel(channelId);
     }
 
+    /**
+     * Streams all messages of a channel in bounded memory, for exports and bulk processing
+     * The returned stream must be closed
+     */
+    public Stream<Message> streamMessagesForChannel(int channelId) {
+        validateChannelId(channelId);
+        return channelDAO.streamMessagesForChannel(channelId);
+    }
+
     /**
      * Gets recent messages for a channel with a limit
      */
@@ -87,6 +98,28 @@ public class ChannelManager {
         return channelDAO.getRecentMessages(channelId, limit);
     }
 
+    /**
+     * Gets the page of messages older than a cursor, oldest first
+     * @param beforeCreatedAt creation date of the cursor message, or null for the most recent page
+     * @param beforeMessageId cursor message ID, or 0 for the most recent page
+     */
+    public List<Message> getMessagesBefore(int channelId, Date beforeCreatedAt, long beforeMessageId, int limit) {
+        validateChannelId(channelId);
+        validatePage(beforeCreatedAt, beforeMessageId, limit);
+        return channelDAO.getMessagesBefore(channelId, beforeCreatedAt, beforeMessageId, limit);
+    }
+
+    /**
+     * Gets the page of messages newer than a cursor, oldest first
+     * @param afterCreatedAt creation date of the cursor message, or null for the oldest page
+     * @param afterMessageId cursor message ID, or 0 for the oldest page
+     */
+    public List<Message> getMessagesAfter(int channelId, Date afterCreatedAt, long afterMessageId, int limit) {
+        validateChannelId(channelId);
+        validatePage(afterCreatedAt, afterMessageId, limit);
+        return channelDAO.getMessagesAfter(channelId, afterCreatedAt, afterMessageId, limit);
+    }
+
     /**
      * Sends a message to a channel
      * Business logic: validates message content, creates message, persists
@@ -194,6 +227,18 @@ public class ChannelManager {
         }
     }
 
+    /**
+     * Validates a page cursor and size
+     */
+    private void validatePage(Date cursorCreatedAt, long cursorMessageId, int limit) {
+        if (cursorMessageId < 0 || (cursorCreatedAt == null) != (cursorMessageId == 0)) {
+            throw new IllegalArgumentException("Invalid message cursor: " + cursorMessageId);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Message limit must be positive");
+        }
+    }
+
     // ==================== Exception Classes ====================
 
     /**
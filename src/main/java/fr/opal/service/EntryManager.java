@@ -28,6 +28,7 @@ public class EntryManager {
     private AuthManager authManager;
     private EntryDAO dao;
     private ChannelManager channelManager;
+    private PermissionResolver permissionResolver;
 
     /**
      * Constructor with no parameters
@@ -37,6 +38,7 @@ public class EntryManager {
         this.authManager = AuthManager.getInstance();
         this.dao = AbstractDAOFactory.getFactory().createEntryDAO();
         this.channelManager = new ChannelManager();
+        this.permissionResolver = PermissionResolver.getInstance();
         this.currentEntry = null;
         this.currentUser = null;
     }
@@ -68,7 +70,7 @@ public class EntryManager {
      */
     public EntryContextDTO getEntry(int id) {
         // Load the target entry with full details and Depth-1 neighbors
-        Entry targetEntry = dao.loadEntryWithDetails(id);
+        Entry targetEntry = loadForCheck(id);
         
         if (targetEntry == null) {
             return null;
@@ -79,6 +81,11 @@ public class EntryManager {
         
         // Extract children (Depth +1) - already metadata only from DAO
         List<Entry> childEntries = targetEntry.getChildEntries();
+
+        // Children were read along with the target: drop their memoized results as well
+        for (Entry child : childEntries) {
+            permissionResolver.invalidateEntry(child.getId());
+        }
         
         // Create and return the context DTO
         EntryContextDTO context = new EntryContextDTO(targetEntry, parentEntry, childEntries);
@@ -101,7 +108,7 @@ public class EntryManager {
         }
         
         Entry targetEntry = context.getTargetEntry();
-        if (!targetEntry.canUserAccess(currentUser)) {
+        if (!permissionResolver.hasPermission(targetEntry, currentUser, EPermission.READER)) {
             throw new PermissionException("You do not have permission to view this entry.");
         }
         
@@ -111,18 +118,10 @@ public class EntryManager {
 
     /**
      * Loads a project entry by name
-     * Business logic: searches through root entries to find matching project
+     * Business logic: looks up the matching root entry, then loads it with full context
      */
     public EntryContextDTO loadProjectByName(String projectName) {
-        List<Entry> rootEntries = getAllRootEntries();
-        Entry rootEntry = null;
-        
-        for (Entry entry : rootEntries) {
-            if (projectName.equals(entry.getTitle())) {
-                rootEntry = entry;
-                break;
-            }
-        }
+        Entry rootEntry = dao.findRootByTitle(projectName);
         
         if (rootEntry != null) {
             EntryContextDTO context = getEntry(rootEntry.getId());
@@ -138,6 +137,7 @@ public class EntryManager {
     /**
      * Persists an entry to the database
      * Handles both new entries (insert) and existing entries (update)
+     * Permissions and parent may have changed, so cached permissions of the entry's subtree are dropped
      */
     public void persistEntry(Entry entry) {
         if (entry.getId() == 0) {
@@ -150,6 +150,7 @@ public class EntryManager {
         }
         // Update relationships
         dao.updateEntryRelationships(entry);
+        permissionResolver.invalidateEntry(entry.getId());
     }
 
     /**
@@ -177,10 +178,11 @@ public class EntryManager {
      */
     public void removeEntry(int id) {
         dao.deleteEntry(id);
+        permissionResolver.invalidateEntry(id);
     }
 
     /**
-     * Gets all root entries from the database
+     * Gets all root entries from the database (metadata only, without content)
      */
     public List<Entry> getAllRootEntries() {
         return dao.getRootEntries();
@@ -297,7 +299,7 @@ public class EntryManager {
      */
     public void addComment(int entryId, User sender, String content) throws PermissionException {
         // SECURITY: Verify user has permission to comment
-        Entry entry = dao.loadEntryWithDetails(entryId);
+        Entry entry = loadForCheck(entryId);
         if (entry == null) {
             throw new PermissionException("Entry not found");
         }
@@ -365,7 +367,7 @@ public class EntryManager {
      * SECURITY: READER and COMMENTOR users are strictly blocked
      */
     public void updateEntryContent(int entryId, String newTitle, String newContent) throws PermissionException {
-        Entry entry = dao.loadEntryWithDetails(entryId);
+        Entry entry = loadForCheck(entryId);
         if (entry == null) {
             throw new PermissionException("Entry not found");
         }
@@ -380,7 +382,7 @@ public class EntryManager {
         entry.setContent(newContent);
         
         // Persist the entry content changes
-        persistEntry(entry);
+        dao.saveEntry(entry);
     }
 
     /**
@@ -392,7 +394,7 @@ public class EntryManager {
      */
     @Deprecated
     public void updateEntry(int entryId, String newTitle, String newContent, List<UserPermission> permissionOverrides) throws PermissionException {
-        Entry entry = dao.loadEntryWithDetails(entryId);
+        Entry entry = loadForCheck(entryId);
         if (entry == null) {
             throw new PermissionException("Entry not found");
         }
@@ -464,33 +466,25 @@ public class EntryManager {
         persistEntry(entry);
     }
 
+    /**
+     * Loads an entry with full details before a permission check
+     * Its permissions and parent were just read from the database, where other clients may have
+     * changed them: results memoized for the entry are recomputed on the next check
+     */
+    private Entry loadForCheck(int entryId) {
+        Entry entry = dao.loadEntryWithDetails(entryId);
+        if (entry != null) {
+            permissionResolver.invalidateEntry(entry.getId());
+        }
+        return entry;
+    }
+
     /**
      * Checks if current user has permission on specific entry
-     * Uses cascading permission check - walks up parent chain until permission is found
+     * Uses the memoized cascading permission check - walks up parent chain to permission boundary on a miss
      */
     private boolean hasPermission(Entry entry, EPermission requiredPermission) {
-        if (entry == null || requiredPermission == null) {
-            return false;
-        }
-        
-        // Use cascading permission check - walks up parent chain to permission boundary
-        UserPermission userPerm = entry.getUserPermissionWithCascade(currentUser);
-        if (userPerm == null) {
-            return false;
-        }
-        
-        EPermission userPermission = userPerm.getPermission();
-        
-        // Check if user permission meets or exceeds required permission
-        if (requiredPermission == EPermission.READER) {
-            return userPermission.canView();
-        } else if (requiredPermission == EPermission.COMMENTOR) {
-            return userPermission.canComment();
-        } else if (requiredPermission == EPermission.EDITOR) {
-            return userPermission.canEdit();
-        }
-        
-        return false;
+        return permissionResolver.hasPermission(entry, currentUser, requiredPermission);
     }
 
     // Placeholder Entry Management
@@ -516,12 +510,11 @@ public class EntryManager {
      * Business logic: determines view/comment/edit permissions
      */
     public EntryFacade.EntryUIState getUIStateForEntry(Entry entry, User user) {
-        UserPermission userPerm = entry.getUserPermissionWithCascade(user);
-        if (userPerm == null || userPerm.getPermission() == null) {
+        EPermission permission = permissionResolver.resolve(entry, user);
+        if (permission == null) {
             return new EntryFacade.EntryUIState(false, false, false);
         }
         
-        EPermission permission = userPerm.getPermission();
         return new EntryFacade.EntryUIState(
             permission.canView(),
             permission.canComment(),
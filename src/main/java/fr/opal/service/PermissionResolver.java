@@ -0,0 +1,250 @@
+package fr.opal.service;
+
+import fr.opal.type.EPermission;
+import fr.opal.type.Entry;
+import fr.opal.type.EntryPermissionManager;
+import fr.opal.type.User;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves and memoizes effective entry permissions per (user, entry).
+ *
+ * Resolution follows the permission boundary used when entries are loaded:
+ * a permission set on the entry itself wins, otherwise ancestors are walked
+ * until one has an explicit permission for the user. The first ancestor that
+ * has any permissions is the source of truth: if it does not list the user,
+ * the user gets nothing. This makes the result independent of whether the
+ * entry was loaded directly or as the child of another entry.
+ *
+ * Cached results must be invalidated whenever an entry's permissions or
+ * parent change, see invalidateEntry(int), and whenever an entry is loaded
+ * again from the database, where other clients may have changed them.
+ * The memo serves repeated checks on the entries already loaded. The cache is bounded with LRU
+ * eviction on entries and is emptied when the session changes.
+ */
+public class PermissionResolver {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private static PermissionResolver instance;
+
+    private final int capacity;
+    // entryId -> (userId -> effective permission, empty when none), in access order
+    private final LinkedHashMap<Integer, Map<Integer, Optional<EPermission>>> cache;
+    // Tree shape learned while resolving, used to find descendants on invalidation.
+    // Only kept for the paths leading to cached entries.
+    private final Map<Integer, Integer> parentOf = new HashMap<>();
+    private final Map<Integer, Set<Integer>> childrenOf = new HashMap<>();
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private PermissionResolver() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of entries with cached results
+     */
+    PermissionResolver(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized PermissionResolver getInstance() {
+        if (instance == null) {
+            instance = new PermissionResolver();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the effective permission of a user on an entry
+     * @return the permission, or null if the user has none or is explicitly denied
+     */
+    public synchronized EPermission resolve(Entry entry, User user) {
+        if (entry == null || user == null) {
+            return null;
+        }
+
+        // Unsaved entries have no stable key, resolve them without caching
+        if (entry.getId() == 0) {
+            return compute(entry, user);
+        }
+
+        Map<Integer, Optional<EPermission>> byUser = cache.computeIfAbsent(entry.getId(), id -> new HashMap<>());
+        Optional<EPermission> cached = byUser.get(user.getId());
+        if (cached == null) {
+            cached = Optional.ofNullable(compute(entry, user));
+            byUser.put(user.getId(), cached);
+            recordAncestry(entry);
+            evictOverCapacity();
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * Checks if a user's effective permission on an entry includes the required level
+     */
+    public boolean hasPermission(Entry entry, User user, EPermission requiredPermission) {
+        if (requiredPermission == null) {
+            return false;
+        }
+        EPermission permission = resolve(entry, user);
+        if (permission == null) {
+            return false;
+        }
+
+        if (requiredPermission == EPermission.READER) {
+            return permission.canView();
+        } else if (requiredPermission == EPermission.COMMENTOR) {
+            return permission.canComment();
+        } else if (requiredPermission == EPermission.EDITOR) {
+            return permission.canEdit();
+        }
+        return false;
+    }
+
+    /**
+     * Drops cached results for an entry and all of its known descendants.
+     * Must be called when the entry's permissions or parent change, or when it is deleted.
+     */
+    public synchronized void invalidateEntry(int entryId) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(entryId);
+        while (!pending.isEmpty()) {
+            int id = pending.pop();
+            cache.remove(id);
+            Set<Integer> children = childrenOf.get(id);
+            if (children != null) {
+                pending.addAll(children);
+            }
+        }
+
+        // The parent link may have changed, forget it so it is learned again
+        Integer oldParent = parentOf.remove(entryId);
+        if (oldParent != null) {
+            Set<Integer> siblings = childrenOf.get(oldParent);
+            if (siblings != null) {
+                siblings.remove(entryId);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result
+     */
+    public synchronized void invalidateAll() {
+        cache.clear();
+        parentOf.clear();
+        childrenOf.clear();
+    }
+
+    /**
+     * Number of entries with cached results
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Evicts least recently used entries with their descendants, which could no longer be
+     * reached for invalidation, then forgets ancestors that only led to them
+     */
+    private void evictOverCapacity() {
+        while (cache.size() > capacity) {
+            Iterator<Integer> eldest = cache.keySet().iterator();
+            int evicted = eldest.next();
+            Integer parent = parentOf.get(evicted);
+
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.push(evicted);
+            while (!pending.isEmpty()) {
+                int id = pending.pop();
+                cache.remove(id);
+                parentOf.remove(id);
+                Set<Integer> children = childrenOf.remove(id);
+                if (children != null) {
+                    pending.addAll(children);
+                }
+            }
+
+            int child = evicted;
+            while (parent != null) {
+                Set<Integer> siblings = childrenOf.get(parent);
+                if (siblings != null) {
+                    siblings.remove(child);
+                }
+                if ((siblings != null && !siblings.isEmpty()) || cache.containsKey(parent)) {
+                    break;
+                }
+                childrenOf.remove(parent);
+                child = parent;
+                parent = parentOf.remove(parent);
+            }
+        }
+    }
+
+    /**
+     * Walks the entry and its ancestors, stopping at the permission boundary
+     */
+    private EPermission compute(Entry entry, User user) {
+        int userId = user.getId();
+        EntryPermissionManager own = entry.getPermissionManager();
+        if (own.hasExplicitPermission(userId)) {
+            return own.getPermission(userId);
+        }
+
+        Entry ancestor = entry.getParentEntry();
+        while (ancestor != null) {
+            EntryPermissionManager permissions = ancestor.getPermissionManager();
+            if (permissions.hasExplicitPermission(userId)) {
+                return permissions.getPermission(userId);
+            }
+            if (permissions.hasAnyPermissions()) {
+                return null;
+            }
+            ancestor = ancestor.getParentEntry();
+        }
+        return null;
+    }
+
+    /**
+     * Remembers parent links of the entry's ancestor chain for descendant invalidation
+     */
+    private void recordAncestry(Entry entry) {
+        Entry child = entry;
+        Entry parent = entry.getParentEntry();
+        while (parent != null && parent.getId() != 0) {
+            Integer known = parentOf.put(child.getId(), parent.getId());
+            if (known != null && known != parent.getId()) {
+                Set<Integer> stale = childrenOf.get(known);
+                if (stale != null) {
+                    stale.remove(child.getId());
+                }
+            }
+            Set<Integer> children = childrenOf.computeIfAbsent(parent.getId(), id -> new HashSet<>());
+            if (!children.add(child.getId()) && known != null) {
+                // Rest of the chain is already known
+                return;
+            }
+            child = parent;
+            parent = parent.getParentEntry();
+        }
+    }
+}
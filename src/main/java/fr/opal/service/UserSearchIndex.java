@@ -0,0 +1,335 @@
+package fr.opal.service;
+
+import fr.opal.dao.UserDAO;
+import fr.opal.type.User;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory username index answering prefix and substring searches, ranked by relevance:
+ * exact match, then prefix, then match at the start of a word, then any substring,
+ * shorter usernames first within a rank.
+ * Usernames are folded to lower case without accents, like the MySQL collation, and indexed
+ * by trigram, so a query only verifies the users sharing its rarest trigram instead of
+ * scanning the users table with LIKE '%query%'.
+ * The index follows inserts by reading the users past the highest ID it holds, at most once per
+ * refresh interval. IDs missing below the highest one read may belong to inserts not committed yet,
+ * such as a concurrent batch, so they are read again on each refresh until found or expired.
+ * Usernames never change and users are never deleted, so nothing else is tracked.
+ */
+public class UserSearchIndex {
+
+    /**
+     * Number of results returned by FriendsDAO.searchUsers
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Time after which a missing ID is taken for a rolled back insert and no longer read
+     */
+    private static final long PENDING_ID_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Missing IDs are only tracked this far below the highest indexed one, ten times a generator batch
+     */
+    private static final int PENDING_ID_WINDOW = 5_000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_PREFIX = 1;
+    private static final int RANK_WORD = 2;
+    private static final int RANK_SUBSTRING = 3;
+
+    private final UserDAO userDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Postings and the prefix map refer to users by slot, their position in these lists
+    private final List<User> users = new ArrayList<>();
+    private final List<String> foldedNames = new ArrayList<>();
+    private final Map<Integer, Integer> slotsById = new HashMap<>();
+    // Folded name + '\0' + ID, so equal folded names stay distinct
+    private final NavigableMap<String, Integer> slotsByName = new TreeMap<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private int maxIndexedId;
+    // Missing IDs below the highest read, with the time they were first found missing; only used by refresh
+    private final NavigableMap<Integer, Long> pendingIds = new TreeMap<>();
+
+    private volatile long lastRefreshNanos;
+    private volatile boolean loaded;
+
+    public UserSearchIndex(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    /**
+     * Searches usernames containing the query, best matches first
+     * @param limit maximum number of users returned
+     */
+    public ArrayList<User> search(String query, int limit) {
+        String needle = fold(query.trim());
+        if (needle.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        refreshIfStale();
+
+        TopMatches top = new TopMatches(limit);
+        lock.readLock().lock();
+        try {
+            if (needle.length() >= 3) {
+                // Every match contains each of the query's trigrams, so the rarest list holds them all
+                Postings candidates = rarestPostings(needle);
+                if (candidates != null) {
+                    for (int i = 0; i < candidates.size; i++) {
+                        top.offer(candidates.slots[i], needle);
+                    }
+                }
+            } else {
+                // Too short for trigrams: prefixes come from the sorted map, other substrings from a scan
+                for (int slot : slotsByName.subMap(needle, true, needle + Character.MAX_VALUE, false).values()) {
+                    top.offer(slot, needle);
+                }
+                for (int slot = 0; slot < foldedNames.size(); slot++) {
+                    if (!foldedNames.get(slot).startsWith(needle)) {
+                        top.offer(slot, needle);
+                    }
+                }
+            }
+            return top.toUsers();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters and ranks already loaded users as search would.
+     * When the results of a query were not cut by the limit, they hold every match of any longer
+     * query starting with it, so type-ahead can narrow them without going back to the index.
+     */
+    public static ArrayList<User> narrow(List<User> candidates, String query, int limit) {
+        String needle = fold(query.trim());
+        List<Candidate> matches = new ArrayList<>();
+        for (User user : candidates) {
+            String name = fold(user.getUsername());
+            int position = name.indexOf(needle);
+            if (position >= 0) {
+                matches.add(new Candidate(user, name, rank(name, needle, position)));
+            }
+        }
+        matches.sort(Comparator.<Candidate>comparingInt(match -> match.rank)
+                .thenComparingInt(match -> match.name.length())
+                .thenComparing(match -> match.name)
+                .thenComparingInt(match -> match.user.getId()));
+        ArrayList<User> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).user);
+        }
+        return result;
+    }
+
+    /**
+     * Number of indexed users
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads users inserted since the last refresh, if the refresh interval has passed
+     */
+    private void refreshIfStale() {
+        if (loaded && System.nanoTime() - lastRefreshNanos < REFRESH_INTERVAL_NANOS) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * Indexes every user past the highest indexed ID, or past the lowest pending one, page by page.
+     * Pages are read outside the index lock, so searches keep running during a refresh.
+     */
+    public synchronized void refresh() {
+        long now = System.nanoTime();
+        pendingIds.values().removeIf(since -> now - since > PENDING_ID_TIMEOUT_NANOS);
+        int afterId = maxIndexedId;
+        if (!pendingIds.isEmpty()) {
+            afterId = Math.min(afterId, pendingIds.firstKey() - 1);
+        }
+
+        List<User> page;
+        do {
+            page = userDAO.getUsersAfter(afterId, LOAD_PAGE_SIZE);
+            lock.writeLock().lock();
+            try {
+                for (User user : page) {
+                    if (!slotsById.containsKey(user.getId())) {
+                        add(user);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (User user : page) {
+                pendingIds.remove(user.getId());
+                // IDs skipped by the page were allocated to inserts not visible yet, or rolled back
+                for (int missing = Math.max(afterId + 1, user.getId() - PENDING_ID_WINDOW); missing < user.getId(); missing++) {
+                    pendingIds.putIfAbsent(missing, now);
+                }
+                afterId = user.getId();
+            }
+            // Only recent IDs can still be pending, this also bounds how far back the next refresh reads
+            pendingIds.headMap(maxIndexedId - PENDING_ID_WINDOW, false).clear();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lastRefreshNanos = System.nanoTime();
+        loaded = true;
+    }
+
+    private void add(User user) {
+        int slot = users.size();
+        String name = fold(user.getUsername());
+        users.add(user);
+        foldedNames.add(name);
+        slotsById.put(user.getId(), slot);
+        slotsByName.put(name + '\0' + user.getId(), slot);
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            long trigram = trigram(name, i);
+            // A name repeating a trigram is listed once, as slots only grow
+            Postings postings = trigrams.computeIfAbsent(trigram, key -> new Postings());
+            if (postings.size == 0 || postings.slots[postings.size - 1] != slot) {
+                postings.add(slot);
+            }
+        }
+        maxIndexedId = Math.max(maxIndexedId, user.getId());
+    }
+
+    /**
+     * Shortest posting list among the query's trigrams, or null if one has none
+     */
+    private Postings rarestPostings(String needle) {
+        Postings rarest = null;
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            Postings postings = trigrams.get(trigram(needle, i));
+            if (postings == null) {
+                return null;
+            }
+            if (rarest == null || postings.size < rarest.size) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    private static long trigram(String name, int start) {
+        return ((long) name.charAt(start) << 32) | ((long) name.charAt(start + 1) << 16) | name.charAt(start + 2);
+    }
+
+    /**
+     * Lower case without accents, matching what the database collation treats as equal
+     */
+    static String fold(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static int rank(String name, String needle, int position) {
+        if (position == 0) {
+            return name.length() == needle.length() ? RANK_EXACT : RANK_PREFIX;
+        }
+        return Character.isLetterOrDigit(name.charAt(position - 1)) ? RANK_SUBSTRING : RANK_WORD;
+    }
+
+    private static final class Candidate {
+        final User user;
+        final String name;
+        final int rank;
+
+        Candidate(User user, String name, int rank) {
+            this.user = user;
+            this.name = name;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Growable list of slots, in increasing order
+     */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    /**
+     * Keeps the best matches seen so far; the heap's head is the worst one kept
+     */
+    private final class TopMatches {
+        private final int limit;
+        private final Comparator<long[]> order = Comparator
+                .<long[]>comparingLong(match -> match[0])
+                .thenComparingLong(match -> foldedNames.get((int) match[1]).length())
+                .thenComparing(match -> foldedNames.get((int) match[1]))
+                .thenComparingInt(match -> users.get((int) match[1]).getId());
+        private final PriorityQueue<long[]> heap;
+
+        TopMatches(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, order.reversed());
+        }
+
+        /**
+         * Considers a slot, ignored unless its name contains the query
+         */
+        void offer(int slot, String needle) {
+            String name = foldedNames.get(slot);
+            int position = name.indexOf(needle);
+            if (position < 0) {
+                return;
+            }
+            long[] match = {rank(name, needle, position), slot};
+            if (heap.size() < limit) {
+                heap.add(match);
+            } else if (order.compare(match, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(match);
+            }
+        }
+
+        ArrayList<User> toUsers() {
+            List<long[]> matches = new ArrayList<>(heap);
+            matches.sort(order);
+            ArrayList<User> result = new ArrayList<>(matches.size());
+            for (long[] match : matches) {
+                result.add(users.get((int) match[1]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package fr.opal.tools;
+
+import fr.opal.dao.ChannelDAO;
+import fr.opal.dao.EntryDAO;
+import fr.opal.dao.FriendsDAO;
+import fr.opal.dao.UserDAO;
+import fr.opal.exception.DataAccessException;
+import fr.opal.factory.AbstractDAOFactory;
+import fr.opal.type.EPermission;
+import fr.opal.type.Entry;
+import fr.opal.type.Message;
+import fr.opal.type.User;
+import fr.opal.type.UserPermission;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Fills the configured backend with a synthetic, production-like dataset through the DAO layer:
+ * users, a friendship/follow/block graph with power-law degrees, entry trees with sparse
+ * permissions and channels full of messages.
+ * Work is cut into batches committed as one transaction each and run on a thread pool.
+ * Each batch is written with the batch methods of the DAOs, one statement batch per table,
+ * except blocks which remove the relationships of their pair one by one.
+ * Batches write the counters of the same popular users concurrently, so a batch rolled back
+ * as a deadlock victim is run again.
+ * The same seed always produces the same graph and content.
+ *
+ * Usage: DatasetGenerator [key=value ...] with the keys of {@link Config#set(String, String)},
+ * e.g. users=100000 messagesPerChannel=10000 threads=8, the backend being chosen with -Dopal.dao.factory.
+ */
+public class DatasetGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(DatasetGenerator.class.getName());
+
+    /**
+     * Runs of a batch before a deadlock fails the generation
+     */
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+
+    private static final EPermission[] GRANTED_PERMISSIONS = {EPermission.READER, EPermission.COMMENTOR, EPermission.EDITOR};
+
+    private static final String[] WORDS = {
+            "note", "project", "meeting", "draft", "review", "idea", "task", "deadline", "update", "plan",
+            "section", "question", "answer", "feedback", "todo", "done", "later", "check", "link", "file"
+    };
+
+    /**
+     * Dataset shape. Defaults make a small dataset that generates in seconds.
+     */
+    public static class Config {
+        int users = 1_000;
+        String usernamePrefix = "gen";
+        double powerLawExponent = 2.2;
+        int averageFriends = 20;
+        double pendingRatio = 0.1;
+        int averageFollows = 10;
+        double blockRatio = 0.02;
+        int entryTrees = 10;
+        int treeDepth = 4;
+        int fanOut = 5;
+        double permissionDensity = 0.05;
+        int channels = 10;
+        int messagesPerChannel = 1_000;
+        int batchSize = 500;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+
+        public Config users(int users) { this.users = users; return this; }
+        public Config usernamePrefix(String prefix) { this.usernamePrefix = prefix; return this; }
+        public Config powerLawExponent(double exponent) { this.powerLawExponent = exponent; return this; }
+        public Config averageFriends(int count) { this.averageFriends = count; return this; }
+        public Config pendingRatio(double ratio) { this.pendingRatio = ratio; return this; }
+        public Config averageFollows(int count) { this.averageFollows = count; return this; }
+        public Config blockRatio(double ratio) { this.blockRatio = ratio; return this; }
+        public Config entryTrees(int count) { this.entryTrees = count; return this; }
+        public Config treeDepth(int depth) { this.treeDepth = depth; return this; }
+        public Config fanOut(int fanOut) { this.fanOut = fanOut; return this; }
+        public Config permissionDensity(double density) { this.permissionDensity = density; return this; }
+        public Config channels(int count) { this.channels = count; return this; }
+        public Config messagesPerChannel(int count) { this.messagesPerChannel = count; return this; }
+        public Config batchSize(int size) { this.batchSize = size; return this; }
+        public Config threads(int threads) { this.threads = threads; return this; }
+        public Config seed(long seed) { this.seed = seed; return this; }
+
+        /**
+         * Sets a value by its builder method name, e.g. set("users", "5000")
+         * @throws IllegalArgumentException for an unknown key or a malformed value
+         */
+        public Config set(String key, String value) {
+            try {
+                switch (key) {
+                    case "users": return users(Integer.parseInt(value));
+                    case "usernamePrefix": return usernamePrefix(value);
+                    case "powerLawExponent": return powerLawExponent(Double.parseDouble(value));
+                    case "averageFriends": return averageFriends(Integer.parseInt(value));
+                    case "pendingRatio": return pendingRatio(Double.parseDouble(value));
+                    case "averageFollows": return averageFollows(Integer.parseInt(value));
+                    case "blockRatio": return blockRatio(Double.parseDouble(value));
+                    case "entryTrees": return entryTrees(Integer.parseInt(value));
+                    case "treeDepth": return treeDepth(Integer.parseInt(value));
+                    case "fanOut": return fanOut(Integer.parseInt(value));
+                    case "permissionDensity": return permissionDensity(Double.parseDouble(value));
+                    case "channels": return channels(Integer.parseInt(value));
+                    case "messagesPerChannel": return messagesPerChannel(Integer.parseInt(value));
+                    case "batchSize": return batchSize(Integer.parseInt(value));
+                    case "threads": return threads(Integer.parseInt(value));
+                    case "seed": return seed(Long.parseLong(value));
+                    default: throw new IllegalArgumentException("Unknown setting: " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+            }
+        }
+    }
+
+    private final AbstractDAOFactory factory;
+    private final Config config;
+    private final UserDAO userDAO;
+    private final FriendsDAO friendsDAO;
+    private final EntryDAO entryDAO;
+    private final ChannelDAO channelDAO;
+
+    private User[] users;
+    private WeightedSampler popularity;
+
+    public DatasetGenerator(AbstractDAOFactory factory, Config config) {
+        if (config.users < 2 || config.batchSize < 1 || config.threads < 1 || config.powerLawExponent <= 1) {
+            throw new IllegalArgumentException("Invalid dataset configuration");
+        }
+        this.factory = factory;
+        this.config = config;
+        this.userDAO = factory.createUserDAO();
+        this.friendsDAO = factory.createFriendsDAO();
+        this.entryDAO = factory.createEntryDAO();
+        this.channelDAO = factory.createChannelDAO();
+    }
+
+    public static void main(String[] args) {
+        Config config = new Config();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            config.set(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new DatasetGenerator(AbstractDAOFactory.getFactory(), config).generate();
+    }
+
+    /**
+     * Generates the whole dataset
+     */
+    public void generate() {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads, r -> {
+            Thread t = new Thread(r, "opal-dataset-generator");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            phase("users", config.users, () -> generateUsers(executor));
+            popularity = new WeightedSampler(powerLawWeights(config.users, config.powerLawExponent, new Random(config.seed)));
+            phase("friendships", () -> generateFriendships(executor));
+            phase("follows", () -> generateFollows(executor));
+            phase("blocks", () -> generateBlocks(executor));
+            phase("entries", () -> generateEntries(executor));
+            phase("messages", () -> generateMessages(executor));
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("Dataset generated in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // ==================== Phases ====================
+
+    private int generateUsers(ExecutorService executor) {
+        users = new User[config.users];
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < config.users; from += config.batchSize) {
+            int first = from;
+            int last = Math.min(from + config.batchSize, config.users);
+            batches.add(() -> inTransaction(() -> {
+                Map<String, String> passwordsByUsername = new LinkedHashMap<>();
+                for (int i = first; i < last; i++) {
+                    passwordsByUsername.put(config.usernamePrefix + "_" + i, "password" + i);
+                }
+                List<User> created = userDAO.createUsers(passwordsByUsername);
+                for (int i = first; i < last; i++) {
+                    users[i] = created.get(i - first);
+                }
+            }, last - first));
+        }
+        return runAll(executor, batches);
+    }
+
+    /**
+     * Undirected friendships between popularity-weighted endpoints (Chung-Lu model),
+     * so friend counts follow the power law. Some are left pending.
+     */
+    private int generateFriendships(ExecutorService executor) {
+        Random random = new Random(config.seed + 1);
+        long target = (long) config.users * config.averageFriends / 2;
+        List<int[]> edges = sampleEdges(target, random, true, () -> popularity.sample(random));
+        boolean[] pending = new boolean[edges.size()];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = random.nextDouble() < config.pendingRatio;
+        }
+        return runEdges(executor, edges, (batch, first) -> {
+            List<int[]> accepted = new ArrayList<>();
+            List<int[]> requested = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if (pending[first + i]) {
+                    requested.add(batch.get(i));
+                } else {
+                    accepted.add(batch.get(i));
+                }
+            }
+            friendsDAO.addFriendships(accepted, true);
+            friendsDAO.addFriendships(requested, false);
+        });
+    }
+
+    /**
+     * Follows from uniformly chosen users to popularity-weighted ones
+     */
+    private int generateFollows(ExecutorService executor) {
+        Random random = new Random(config.seed + 2);
+        long target = (long) config.users * config.averageFollows;
+        List<int[]> edges = sampleEdges(target, random, false, () -> popularity.sample(random));
+        return runEdges(executor, edges, (batch, first) -> friendsDAO.addFollows(batch));
+    }
+
+    /**
+     * Blocks between uniformly chosen users. Runs last among relations, since blocking
+     * removes friendships and follows between the pair.
+     */
+    private int generateBlocks(ExecutorService executor) {
+        Random random = new Random(config.seed + 3);
+        long target = (long) (config.users * config.blockRatio);
+        List<int[]> edges = sampleEdges(target, random, false, () -> random.nextInt(config.users));
+        return runEdges(executor, edges, (batch, first) -> {
+            for (int[] edge : batch) {
+                friendsDAO.block(edge[0], edge[1]);
+            }
+        });
+    }
+
+    /**
+     * Entry trees created level by level, each level split into batches of parents.
+     * Parents are referenced by ID only, so memory does not grow with the tree.
+     */
+    private int generateEntries(ExecutorService executor) {
+        int[] parents = null;
+        int created = 0;
+        for (int level = 0; level < config.treeDepth; level++) {
+            int parentCount = level == 0 ? 1 : parents.length;
+            int childrenPerParent = level == 0 ? config.entryTrees : config.fanOut;
+            int parentsPerBatch = Math.max(1, config.batchSize / Math.max(1, childrenPerParent));
+            int[] levelParents = parents;
+            int depth = level;
+
+            List<Callable<int[]>> batches = new ArrayList<>();
+            for (int from = 0; from < parentCount; from += parentsPerBatch) {
+                int first = from;
+                int last = Math.min(from + parentsPerBatch, parentCount);
+                batches.add(() -> createEntryBatch(levelParents, first, last, childrenPerParent, depth));
+            }
+
+            List<int[]> results = collect(executor, batches);
+            int total = results.stream().mapToInt(ids -> ids.length).sum();
+            int[] children = new int[total];
+            int offset = 0;
+            for (int[] ids : results) {
+                System.arraycopy(ids, 0, children, offset, ids.length);
+                offset += ids.length;
+            }
+            created += total;
+            parents = children;
+        }
+        return created;
+    }
+
+    private int[] createEntryBatch(int[] parents, int first, int last, int childrenPerParent, int depth) {
+        // Seeded per batch so the tree does not depend on thread scheduling
+        List<Entry> entries = new ArrayList<>((last - first) * childrenPerParent);
+        inTransaction(() -> {
+            Random random = new Random(config.seed * 31 + depth * 1_000_003L + first);
+            entries.clear();
+            for (int p = first; p < last; p++) {
+                Entry parent = null;
+                if (parents != null) {
+                    parent = new Entry();
+                    parent.setId(parents[p]);
+                }
+                for (int c = 0; c < childrenPerParent; c++) {
+                    User author = users[popularity.sample(random)];
+                    Entry entry = new Entry(title(depth, p, c), sentence(random, 20 + random.nextInt(200)), author);
+                    // Sparse permissions: only a few entries override what they inherit
+                    if (random.nextDouble() < config.permissionDensity) {
+                        User grantee = users[random.nextInt(users.length)];
+                        EPermission permission = GRANTED_PERMISSIONS[random.nextInt(GRANTED_PERMISSIONS.length)];
+                        entry.getPermissionManager().addUserPermission(new UserPermission(grantee, permission));
+                    }
+                    if (parent != null) {
+                        try {
+                            entry.setParentEntry(parent);
+                        } catch (Entry.CircularDependencyException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    entries.add(entry);
+                }
+            }
+            entryDAO.createEntries(entries);
+        });
+        int[] ids = new int[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Channels filled with messages from popularity-weighted senders, in batches spread across threads
+     */
+    private int generateMessages(ExecutorService executor) {
+        int[] channelIds = new int[config.channels];
+        runAll(executor, List.of(() -> inTransaction(() -> {
+            System.arraycopy(channelDAO.createChannels(channelIds.length), 0, channelIds, 0, channelIds.length);
+        }, channelIds.length)));
+
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int channel = 0; channel < channelIds.length; channel++) {
+            int channelId = channelIds[channel];
+            for (int from = 0; from < config.messagesPerChannel; from += config.batchSize) {
+                int first = from;
+                int count = Math.min(config.batchSize, config.messagesPerChannel - from);
+                long batchSeed = config.seed * 17 + (long) channel * config.messagesPerChannel + first;
+                batches.add(() -> inTransaction(() -> {
+                    Random random = new Random(batchSeed);
+                    List<Message> messages = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        User sender = users[popularity.sample(random)];
+                        messages.add(new Message(channelId, sender, sentence(random, 5 + random.nextInt(40))));
+                    }
+                    channelDAO.saveMessages(messages);
+                }, count));
+            }
+        }
+        return runAll(executor, batches);
+    }
+
+    // ==================== Helpers ====================
+
+    @FunctionalInterface
+    private interface EdgeWriter {
+        /**
+         * Writes a batch of {from user ID, to user ID} edges, starting at index first of the sampled edges
+         */
+        void write(List<int[]> batch, int first);
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        int run();
+    }
+
+    private void phase(String name, Phase phase) {
+        phase(name, -1, phase);
+    }
+
+    private void phase(String name, int expected, Phase phase) {
+        long start = System.nanoTime();
+        int count = phase.run();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        LOGGER.info("Generated " + count + " " + name + " in " + millis + " ms ("
+                + count * 1000L / millis + "/s)" + (expected >= 0 && expected != count ? ", expected " + expected : ""));
+    }
+
+    /**
+     * Draws distinct pairs of distinct users: the first endpoint popularity-weighted for undirected
+     * edges and uniform for directed ones, the second from the given source.
+     * Stops after a bounded number of attempts on graphs too dense for the target.
+     */
+    private List<int[]> sampleEdges(long target, Random random, boolean undirected, IntSource second) {
+        List<int[]> edges = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        long attempts = 0;
+        while (edges.size() < target && attempts++ < target * 10) {
+            int a = undirected ? popularity.sample(random) : random.nextInt(config.users);
+            int b = second.next();
+            if (a == b) {
+                continue;
+            }
+            long key = undirected
+                    ? ((long) Math.min(a, b) << 32) | Math.max(a, b)
+                    : ((long) a << 32) | b;
+            if (seen.add(key)) {
+                edges.add(new int[]{a, b});
+            }
+        }
+        return edges;
+    }
+
+    @FunctionalInterface
+    private interface IntSource {
+        int next();
+    }
+
+    private int runEdges(ExecutorService executor, List<int[]> edges, EdgeWriter writer) {
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < edges.size(); from += config.batchSize) {
+            int first = from;
+            int last = Math.min(from + config.batchSize, edges.size());
+            batches.add(() -> inTransaction(() -> {
+                List<int[]> batch = new ArrayList<>(last - first);
+                for (int i = first; i < last; i++) {
+                    int[] edge = edges.get(i);
+                    batch.add(new int[]{users[edge[0]].getId(), users[edge[1]].getId()});
+                }
+                writer.write(batch, first);
+            }, last - first));
+        }
+        return runAll(executor, batches);
+    }
+
+    private int inTransaction(Runnable work, int count) {
+        inTransaction(work);
+        return count;
+    }
+
+    /**
+     * Commits the work as one transaction, running it again when the database rolled it back
+     * to break a deadlock or a serialization conflict. Nothing of a rolled back run remains,
+     * and a retried batch draws the same rows, so the dataset does not change.
+     */
+    private void inTransaction(Runnable work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                factory.inTransaction(work);
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == MAX_BATCH_ATTEMPTS || !isTransactionRollback(e)) {
+                    throw e;
+                }
+                LOGGER.fine("Batch rolled back by the database, attempt " + attempt + ": " + e.getMessage());
+                try {
+                    Thread.sleep(attempt * 20L);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the failure is a transaction rollback (SQLState class 40): 40001 for a MySQL or H2
+     * deadlock and a serialization failure, 40P01 for a PostgreSQL deadlock
+     */
+    static boolean isTransactionRollback(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith("40")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int runAll(ExecutorService executor, List<Callable<Integer>> tasks) {
+        return collect(executor, tasks).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static <T> List<T> collect(ExecutorService executor, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dataset generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dataset generation failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Weights w(rank) = rank^(-1/(exponent-1)), giving degrees with a power-law tail of the given
+     * exponent, assigned to users in a seeded random order
+     */
+    static double[] powerLawWeights(int count, double exponent, Random random) {
+        double[] weights = new double[count];
+        double power = -1 / (exponent - 1);
+        for (int i = 0; i < count; i++) {
+            weights[i] = Math.pow(i + 1, power);
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = weights[i];
+            weights[i] = weights[j];
+            weights[j] = swap;
+        }
+        return weights;
+    }
+
+    private static String title(int depth, int parent, int child) {
+        return depth == 0 ? "Project " + child : "Entry " + depth + "." + parent + "." + child;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Draws indexes with probability proportional to their weight, by binary search on the cumulative sum
+     */
+    static final class WeightedSampler {
+        private final double[] cumulative;
+
+        WeightedSampler(double[] weights) {
+            cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+        }
+
+        int sample(Random random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -1,28 +1,55 @@
 package fr.opal.type;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
 
 /**
- * Manages permissions for users on an entry
+ * Manages permissions for users on an entry.
+ * Permissions are stored per user ID in insertion order, with a hash index for O(1) lookups.
+ * Replacing a user's permission keeps its position, so saving order is stable.
+ * Changes since the last markClean() are tracked so only those rows need to be written.
  */
 public class EntryPermissionManager {
-    private List<UserPermission> userPermissions;
+    private static final EPermission[] PERMISSIONS = EPermission.values();
+    // Stored ordinal for an explicit denial (null permission)
+    private static final byte DENIED = -1;
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Dense storage in insertion order
+    private User[] users;
+    private int[] userIds;
+    private byte[] permissions;
+    private boolean[] changed;
+    private int size;
+
+    // Dirty tracking against the last persisted state
+    private int changedCount;
+    private final Set<String> removedUsernames = new HashSet<>();
+
+    // Open-addressing index: userId -> slot + 1, 0 marks an empty bucket
+    private int[] index;
+
+    private final List<UserPermission> view = new PermissionView();
 
     /**
      * Constructor
      */
     public EntryPermissionManager() {
-        this.userPermissions = new ArrayList<>();
+        clear(INITIAL_CAPACITY);
     }
 
     /**
      * Adds a user permission for the entry
+     * Replaces any existing permission for this user in place
      */
     public void addUserPermission(UserPermission permission) {
-        // Remove existing permission for this user if present
-        userPermissions.removeIf(up -> up.getUser().getId() == permission.getUser().getId());
-        userPermissions.add(permission);
+        put(permission.getUser(), permission.getPermission());
     }
 
     /**
@@ -30,21 +57,24 @@ public class EntryPermissionManager {
      * This stores a null permission to indicate explicit denial at this node
      */
     public void removeUserPermission(User user) {
-        userPermissions.removeIf(up -> up.getUser().getId() == user.getId());
-        // Add a null permission entry to mark explicit denial for sparse inheritance
-        userPermissions.add(new UserPermission(user, null));
+        put(user, null);
     }
 
     /**
      * Gets the permission for a specific user
      */
     public UserPermission getUserPermission(User user) {
-        for (UserPermission up : userPermissions) {
-            if (up.getUser().getId() == user.getId()) {
-                return up;
-            }
-        }
-        return null;
+        int slot = slotOf(user.getId());
+        return slot < 0 ? null : new UserPermission(users[slot], decode(permissions[slot]));
+    }
+
+    /**
+     * Gets the permission level for a user ID without building a UserPermission
+     * @return the permission, or null if none is defined or it is an explicit denial
+     */
+    public EPermission getPermission(int userId) {
+        int slot = slotOf(userId);
+        return slot < 0 ? null : decode(permissions[slot]);
     }
 
     /**
@@ -52,7 +82,14 @@ public class EntryPermissionManager {
      * (used to determine if we should cascade to parent or not)
      */
     public boolean hasExplicitPermission(User user) {
-        return getUserPermission(user) != null;
+        return hasExplicitPermission(user.getId());
+    }
+
+    /**
+     * Checks if a user ID has an explicit permission (or denial) defined at this node
+     */
+    public boolean hasExplicitPermission(int userId) {
+        return slotOf(userId) >= 0;
     }
 
     /**
@@ -60,52 +97,219 @@ public class EntryPermissionManager {
      * Used to determine if this entry is a "permission boundary" for cascading.
      */
     public boolean hasAnyPermissions() {
-        return !userPermissions.isEmpty();
+        return size > 0;
     }
 
     /**
      * Checks if a user can view the entry
      */
     public boolean canView(User user) {
-        UserPermission up = getUserPermission(user);
-        return up != null && up.getPermission().canView();
+        EPermission permission = getPermission(user.getId());
+        return permission != null && permission.canView();
     }
 
     /**
      * Checks if a user can edit the entry
      */
     public boolean canEdit(User user) {
-        UserPermission up = getUserPermission(user);
-        return up != null && up.getPermission().canEdit();
+        EPermission permission = getPermission(user.getId());
+        return permission != null && permission.canEdit();
     }
 
     /**
      * Checks if a user can comment on the entry
      */
     public boolean canComment(User user) {
-        UserPermission up = getUserPermission(user);
-        return up != null && up.getPermission().canComment();
+        EPermission permission = getPermission(user.getId());
+        return permission != null && permission.canComment();
     }
 
     /**
      * Gets all user permissions for this entry
+     * Read-only live view in insertion order
      */
     public List<UserPermission> getUserPermissions() {
-        return new ArrayList<>(userPermissions);
+        return view;
     }
 
     /**
      * Sets all user permissions for this entry
      */
     public void setUserPermissions(List<UserPermission> permissions) {
-        this.userPermissions = new ArrayList<>(permissions);
+        if (permissions == view) {
+            return;
+        }
+        // Users that are not set again must be deleted on the next save
+        for (int slot = 0; slot < size; slot++) {
+            removedUsernames.add(users[slot].getUsername());
+        }
+        clear(Math.max(INITIAL_CAPACITY, permissions.size()));
+        for (UserPermission permission : permissions) {
+            addUserPermission(permission);
+        }
     }
 
     /**
      * Gets all user permissions for this entry
+     * Read-only live view in insertion order
      */
     public List<UserPermission> getAllPermissions() {
-        return new ArrayList<>(userPermissions);
+        return view;
+    }
+
+    /**
+     * Number of users with a permission (or denial) at this node
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if permissions changed since the last markClean()
+     */
+    public boolean isDirty() {
+        return changedCount > 0 || !removedUsernames.isEmpty();
+    }
+
+    /**
+     * Gets the permissions added or modified since the last markClean(), in insertion order
+     */
+    public List<UserPermission> getChangedPermissions() {
+        List<UserPermission> result = new ArrayList<>(changedCount);
+        for (int slot = 0; slot < size && result.size() < changedCount; slot++) {
+            if (changed[slot]) {
+                result.add(new UserPermission(users[slot], decode(permissions[slot])));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the usernames whose permission was dropped since the last markClean()
+     */
+    public Set<String> getRemovedUsernames() {
+        return Collections.unmodifiableSet(removedUsernames);
+    }
+
+    /**
+     * Records the current permissions as persisted
+     */
+    public void markClean() {
+        Arrays.fill(changed, 0, size, false);
+        changedCount = 0;
+        removedUsernames.clear();
     }
-}
 
+    private void put(User user, EPermission permission) {
+        byte encoded = encode(permission);
+        int slot = slotOf(user.getId());
+        if (slot >= 0) {
+            users[slot] = user;
+            if (permissions[slot] != encoded) {
+                permissions[slot] = encoded;
+                markChanged(slot);
+            }
+            return;
+        }
+
+        if (size == users.length) {
+            grow();
+        }
+        users[size] = user;
+        userIds[size] = user.getId();
+        permissions[size] = encoded;
+        size++;
+        insertIndex(size - 1);
+        markChanged(size - 1);
+        removedUsernames.remove(user.getUsername());
+    }
+
+    private void markChanged(int slot) {
+        if (!changed[slot]) {
+            changed[slot] = true;
+            changedCount++;
+        }
+    }
+
+    private int slotOf(int userId) {
+        int mask = index.length - 1;
+        for (int bucket = hash(userId) & mask; ; bucket = (bucket + 1) & mask) {
+            int entry = index[bucket];
+            if (entry == 0) {
+                return -1;
+            }
+            if (userIds[entry - 1] == userId) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insertIndex(int slot) {
+        int mask = index.length - 1;
+        int bucket = hash(userIds[slot]) & mask;
+        while (index[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        index[bucket] = slot + 1;
+    }
+
+    private void grow() {
+        int capacity = users.length * 2;
+        users = Arrays.copyOf(users, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        permissions = Arrays.copyOf(permissions, capacity);
+        changed = Arrays.copyOf(changed, capacity);
+        index = new int[indexSizeFor(capacity)];
+        for (int slot = 0; slot < size; slot++) {
+            insertIndex(slot);
+        }
+    }
+
+    private void clear(int capacity) {
+        users = new User[capacity];
+        userIds = new int[capacity];
+        permissions = new byte[capacity];
+        changed = new boolean[capacity];
+        index = new int[indexSizeFor(capacity)];
+        size = 0;
+        changedCount = 0;
+    }
+
+    /**
+     * Power of two that keeps the index at most half full
+     */
+    private static int indexSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(int userId) {
+        int h = userId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte encode(EPermission permission) {
+        return permission == null ? DENIED : (byte) permission.ordinal();
+    }
+
+    private static EPermission decode(byte ordinal) {
+        return ordinal == DENIED ? null : PERMISSIONS[ordinal];
+    }
+
+    /**
+     * Read-only list over the stored permissions
+     */
+    private final class PermissionView extends AbstractList<UserPermission> implements RandomAccess {
+        @Override
+        public UserPermission get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            }
+            return new UserPermission(users[i], decode(permissions[i]));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package fr.opal.type;
+
+/**
+ * Relationship of a user to the viewing user, with the user's counters,
+ * as shown next to each search result
+ */
+public class RelationshipStatus {
+
+    private final int userId;
+    private final int friendCount;
+    private final int followerCount;
+    private final boolean blocked;
+    private final boolean friend;
+    private final boolean following;
+    private final boolean pendingRequest;
+
+    public RelationshipStatus(int userId, int friendCount, int followerCount,
+                              boolean blocked, boolean friend, boolean following, boolean pendingRequest) {
+        this.userId = userId;
+        this.friendCount = friendCount;
+        this.followerCount = followerCount;
+        this.blocked = blocked;
+        this.friend = friend;
+        this.following = following;
+        this.pendingRequest = pendingRequest;
+    }
+
+    /**
+     * Gets the ID of the user this status describes.
+     *
+     * @return the user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the user's friend count.
+     *
+     * @return the number of friends
+     */
+    public int getFriendCount() {
+        return friendCount;
+    }
+
+    /**
+     * Gets the user's follower count.
+     *
+     * @return the number of followers
+     */
+    public int getFollowerCount() {
+        return followerCount;
+    }
+
+    /**
+     * Whether the user has blocked the viewer, like FriendsDAO.isBlocked(viewerId, userId).
+     *
+     * @return true if the viewer is blocked
+     */
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    /**
+     * Whether the viewer and the user are friends.
+     *
+     * @return true if the friendship is accepted
+     */
+    public boolean isFriend() {
+        return friend;
+    }
+
+    /**
+     * Whether the viewer follows the user.
+     *
+     * @return true if following
+     */
+    public boolean isFollowing() {
+        return following;
+    }
+
+    /**
+     * Whether the viewer has sent the user a friend request still pending.
+     *
+     * @return true if a request is pending
+     */
+    public boolean hasPendingRequest() {
+        return pendingRequest;
+    }
+
+    @Override
+    public String toString() {
+        return "RelationshipStatus{userId=" + userId + ", friends=" + friendCount + ", followers=" + followerCount
+                + ", blocked=" + blocked + ", friend=" + friend + ", following=" + following
+                + ", pendingRequest=" + pendingRequest + "}";
+    }
+}
@@ -10,8 +10,8 @@ CREATE TABLE IF NOT EXISTS users (
 CREATE TABLE IF NOT EXISTS user_profiles (
     id INT PRIMARY KEY AUTO_INCREMENT,
     user_id INT NOT NULL UNIQUE,
-    first_name VARCHAR(255),
-    last_name VARCHAR(255),
+    display_name VARCHAR(255),
+    bio TEXT,
     contact_info VARCHAR(255),
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
@@ -45,24 +45,6 @@ CREATE TABLE IF NOT EXISTS session_settings (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
--- Friendships table (bidirectional friend relationships)
--- A friendship owns exactly one Channel (Private DM).
--- Note: 'channel_id' is NULL while status is PENDING, populated when ACCEPTED.
-CREATE TABLE IF NOT EXISTS friendships (
-    id INT PRIMARY KEY AUTO_INCREMENT,
-    user_id1 INT NOT NULL,
-    user_id2 INT NOT NULL,
-    channel_id INT UNIQUE NULL,
-    status ENUM('PENDING', 'ACCEPTED', 'DECLINED') DEFAULT 'PENDING',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id1) REFERENCES users(id) ON DELETE CASCADE,
-    FOREIGN KEY (user_id2) REFERENCES users(id) ON DELETE CASCADE,
-    CONSTRAINT fk_friendships_channel FOREIGN KEY (channel_id) REFERENCES channels(id) ON DELETE SET NULL,
-    UNIQUE KEY unique_friendship (user_id1, user_id2),
-    CHECK (user_id1 != user_id2)
-) ENGINE=InnoDB;
-
 -- Follows table (unidirectional follow relationships)
 CREATE TABLE IF NOT EXISTS follows (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -132,6 +114,8 @@ CREATE TABLE IF NOT EXISTS entries (
     creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
+    -- Root listing and project lookup by title
+    INDEX idx_entries_parent_title (parent_id, title),
     FOREIGN KEY (parent_id) REFERENCES entries(id) ON DELETE CASCADE,
     FOREIGN KEY (author_id) REFERENCES users(id),
     CONSTRAINT fk_entries_channel 
@@ -0,0 +1,128 @@
+-- PostgreSQL version of database_schema.sql
+-- ENUM columns become CHECK constraints and ON UPDATE CURRENT_TIMESTAMP columns
+-- are set by the DAOs in the statements that modify the row.
+
+-- Users table
+CREATE TABLE IF NOT EXISTS users (
+    id SERIAL PRIMARY KEY,
+    username VARCHAR(255) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- User profiles table
+CREATE TABLE IF NOT EXISTS user_profiles (
+    id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL UNIQUE REFERENCES users(id) ON DELETE CASCADE,
+    display_name VARCHAR(255),
+    bio TEXT,
+    contact_info VARCHAR(255),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Permissions table
+CREATE TABLE IF NOT EXISTS permissions (
+    id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Sessions table
+CREATE TABLE IF NOT EXISTS sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_activity TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Session settings table (user appearance preferences)
+CREATE TABLE IF NOT EXISTS session_settings (
+    id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL UNIQUE REFERENCES users(id) ON DELETE CASCADE,
+    font_size INT DEFAULT 14,
+    style_palette VARCHAR(20) DEFAULT 'LIGHT',
+    accent_color VARCHAR(20) DEFAULT 'BLUE'
+);
+
+-- Follows table (unidirectional follow relationships)
+CREATE TABLE IF NOT EXISTS follows (
+    id SERIAL PRIMARY KEY,
+    follower_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    followed_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT unique_follow UNIQUE (follower_id, followed_id),
+    CHECK (follower_id != followed_id)
+);
+
+-- Blocks table (user blocking relationships)
+CREATE TABLE IF NOT EXISTS blocks (
+    id SERIAL PRIMARY KEY,
+    blocker_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    blocked_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT unique_block UNIQUE (blocker_id, blocked_id),
+    CHECK (blocker_id != blocked_id)
+);
+
+-- ====================================
+-- UNIFIED CHANNEL ARCHITECTURE
+-- ====================================
+
+-- 1. Channels (The Generic Container)
+CREATE TABLE IF NOT EXISTS channels (
+    id SERIAL PRIMARY KEY,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 2. Messages (The Content)
+CREATE TABLE IF NOT EXISTS messages (
+    id BIGSERIAL PRIMARY KEY,
+    channel_id INT NOT NULL REFERENCES channels(id) ON DELETE CASCADE,
+    sender_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Chat history sorted by time, with id as the keyset tie-breaker
+CREATE INDEX IF NOT EXISTS idx_channel_created ON messages (channel_id, created_at DESC, id DESC);
+
+-- 3. Entries table
+CREATE TABLE IF NOT EXISTS entries (
+    id SERIAL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    content TEXT,
+    parent_id INT REFERENCES entries(id) ON DELETE CASCADE,
+    author_id INT NOT NULL REFERENCES users(id),
+    channel_id INT UNIQUE NOT NULL REFERENCES channels(id) ON DELETE CASCADE,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Root listing and project lookup by title
+CREATE INDEX IF NOT EXISTS idx_entries_parent_title ON entries (parent_id, title);
+-- Case-insensitive root lookup by title, matching lower(title) = lower(?)
+CREATE INDEX IF NOT EXISTS idx_entries_parent_lower_title ON entries (parent_id, lower(title));
+
+-- Entry Permissions Table
+CREATE TABLE IF NOT EXISTS entry_permissions (
+    id SERIAL PRIMARY KEY,
+    entry_id INT NOT NULL REFERENCES entries(id) ON DELETE CASCADE,
+    username VARCHAR(255) NOT NULL,
+    permission VARCHAR(50),
+    CONSTRAINT unique_entry_user UNIQUE (entry_id, username)
+);
+
+-- 4. Friendships table (bidirectional friend relationships)
+-- Note: 'channel_id' is NULL while status is PENDING, populated when ACCEPTED.
+CREATE TABLE IF NOT EXISTS friendships (
+    id SERIAL PRIMARY KEY,
+    user_id1 INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    user_id2 INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    channel_id INT UNIQUE NULL REFERENCES channels(id) ON DELETE SET NULL,
+    status VARCHAR(16) DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'ACCEPTED', 'DECLINED')),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT unique_friendship UNIQUE (user_id1, user_id2),
+    CHECK (user_id1 != user_id2)
+);
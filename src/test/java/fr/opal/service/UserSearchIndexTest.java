@@ -0,0 +1,224 @@
+package fr.opal.service;
+
+import fr.opal.dao.UserDAO;
+import fr.opal.type.Permission;
+import fr.opal.type.Profile;
+import fr.opal.type.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSearchIndexTest {
+
+    private UsersById userDAO;
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userDAO = new UsersById();
+        index = new UserSearchIndex(userDAO);
+    }
+
+    @Test
+    void foldRemovesCaseAndAccents() {
+        assertEquals("emilie", UserSearchIndex.fold("Émilie"));
+        assertEquals("zoe", UserSearchIndex.fold("ZOË"));
+        assertEquals("francois_a", UserSearchIndex.fold("François_Å"));
+        assertEquals("bob42", UserSearchIndex.fold("bob42"));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordThenSubstring() {
+        userDAO.add(1, "joann");
+        userDAO.add(2, "jo_ann");
+        userDAO.add(3, "annabel");
+        userDAO.add(4, "anna");
+        userDAO.add(5, "Ann");
+        userDAO.add(6, "bob");
+
+        assertEquals(List.of("Ann", "anna", "annabel", "jo_ann", "joann"), names(index.search("ann", 10)));
+    }
+
+    @Test
+    void keepsTheBestMatchesWithinTheLimit() {
+        userDAO.add(1, "xannx");
+        userDAO.add(2, "ann_b");
+        userDAO.add(3, "ann");
+        userDAO.add(4, "ann_a");
+
+        assertEquals(List.of("ann", "ann_a"), names(index.search("ann", 2)));
+    }
+
+    @Test
+    void matchesAccentsAndCaseLikeTheCollation() {
+        userDAO.add(1, "Émile");
+        userDAO.add(2, "EMMA");
+
+        assertEquals(List.of("Émile"), names(index.search("emi", 10)));
+        assertEquals(List.of("EMMA"), names(index.search("Emm", 10)));
+    }
+
+    @Test
+    void verifiesCandidatesOfTheRarestTrigram() {
+        // Every trigram of "abcd" is indexed, but no single name contains the whole query
+        userDAO.add(1, "abcx");
+        userDAO.add(2, "xbcd");
+        for (int id = 3; id < 50; id++) {
+            userDAO.add(id, "bc_user" + id);
+        }
+        userDAO.add(50, "zabcdz");
+
+        assertEquals(List.of("zabcdz"), names(index.search("abcd", 10)));
+        assertTrue(index.search("abcq", 10).isEmpty(), "a trigram no name has leaves no candidate");
+    }
+
+    @Test
+    void searchAgreesWithNarrow() {
+        String[] names = {"alice", "Alicia", "malik", "bob", "bobby", "rob_b", "Élise", "li", "al", "a_li_ce",
+                          "charlie", "charlotte", "lola", "olaf", "paola"};
+        for (int i = 0; i < names.length; i++) {
+            userDAO.add(i + 1, names[i]);
+        }
+        List<User> everyone = new ArrayList<>(userDAO.users.values());
+
+        for (String query : new String[] {"a", "li", "ali", "ALI", "lic", "bob", "b_b", "ola", "char", "eli", "zzz"}) {
+            for (int limit : new int[] {1, 3, 50}) {
+                assertEquals(names(UserSearchIndex.narrow(everyone, query, limit)), names(index.search(query, limit)),
+                        "query " + query + " limit " + limit);
+            }
+        }
+    }
+
+    @Test
+    void narrowingUncutResultsMatchesSearchingTheLongerQuery() {
+        for (int id = 1; id <= 30; id++) {
+            userDAO.add(id, (id % 3 == 0 ? "mar" : "tim") + "_" + id);
+        }
+        ArrayList<User> typed = index.search("ma", UserSearchIndex.DEFAULT_LIMIT);
+        assertTrue(typed.size() < UserSearchIndex.DEFAULT_LIMIT);
+
+        assertEquals(names(index.search("mar_1", UserSearchIndex.DEFAULT_LIMIT)),
+                names(UserSearchIndex.narrow(typed, "mar_1", UserSearchIndex.DEFAULT_LIMIT)));
+    }
+
+    @Test
+    void refreshPicksUpIdsCommittedOutOfOrder() {
+        for (int id = 1; id <= 299; id += 2) {
+            userDAO.add(id, "user" + id);
+        }
+        assertEquals(List.of("user1"), names(index.search("user", 1)));
+        assertEquals(150, index.size());
+
+        // Missing IDs found by the first load are read again, however far below the highest one
+        userDAO.add(298, "late_near");
+        userDAO.add(2, "late_far");
+        index.refresh();
+
+        assertEquals(152, index.size());
+        assertEquals(List.of("late_far", "late_near"), names(index.search("late", 10)));
+    }
+
+    @Test
+    void refreshPicksUpALowIdCommittedAfterManyHigherOnes() {
+        for (int id = 1; id <= 10; id++) {
+            userDAO.add(id, "early" + id);
+        }
+        index.refresh();
+
+        // ID 11 is allocated to a batch still open while 12..1000 commit and get indexed
+        for (int id = 12; id <= 1000; id++) {
+            userDAO.add(id, "batch" + id);
+        }
+        index.refresh();
+        assertEquals(999, index.size());
+
+        userDAO.add(11, "late_low");
+        index.refresh();
+
+        assertEquals(1000, index.size());
+        assertEquals(List.of("late_low"), names(index.search("late", 10)));
+    }
+
+    private static List<String> names(List<User> users) {
+        List<String> names = new ArrayList<>(users.size());
+        for (User user : users) {
+            names.add(user.getUsername());
+        }
+        return names;
+    }
+
+    /**
+     * Users with chosen IDs, so inserts can be committed out of ID order
+     */
+    private static final class UsersById extends UserDAO {
+        final NavigableMap<Integer, User> users = new TreeMap<>();
+
+        void add(int id, String username) {
+            users.put(id, new User(id, username, ""));
+        }
+
+        @Override
+        public List<User> getUsersAfter(int afterId, int limit) {
+            List<User> page = new ArrayList<>();
+            for (User user : users.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(user);
+            }
+            return page;
+        }
+
+        @Override
+        public User getUserByDatabaseId(int id) {
+            return users.get(id);
+        }
+
+        @Override
+        public User getUserById(String username) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User createUser(String username, String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Profile getProfile(int userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateProfile(int userId, Profile profile) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Permission> listPermissions(int userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Permission createPermission(int userId, String permissionName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updatePermission(int permissionId, String permissionName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deletePermission(int permissionId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}